@@ -0,0 +1,31 @@
+package tacos.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The same ingredient as tacos.Ingredient, mapped by Spring Data R2DBC to the same table. Like JPA does by default, the type is stored as its
+ * ordinal (see R2dbcConfig).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("ingredient")
+public class Ingredient {
+
+	@Id
+	private String id;
+
+	private String name;
+
+	private Type type;
+
+	public static enum Type {
+		WRAP, PROTEIN, VEGGIES, CHEESE, SAUCE
+	}
+
+}
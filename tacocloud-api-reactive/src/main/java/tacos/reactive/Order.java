@@ -0,0 +1,54 @@
+package tacos.reactive;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.validation.constraints.Digits;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+
+import org.hibernate.validator.constraints.CreditCardNumber;
+
+import lombok.Data;
+
+/**
+ * The same order, and the same JSON, as tacos.Order, but for its user: the reactive API doesn’t read nor write the users, which belong to the
+ * security module of the servlet application. Like Taco, it is read and written by its repository with plain SQL.
+ *
+ * The delivery and payment details carry the constraints of tacos.Order, which PATCH /orders checks (see OrderController).
+ */
+@Data
+public class Order {
+
+	private Long id;
+
+	private Date placedAt;
+
+	@NotBlank(message = "Delivery name is required")
+	private String deliveryName;
+
+	@NotBlank(message = "Street is required")
+	private String deliveryStreet;
+
+	@NotBlank(message = "City is required")
+	private String deliveryCity;
+
+	@NotBlank(message = "State is required")
+	private String deliveryState;
+
+	@NotBlank(message = "ZIP code is required")
+	private String deliveryZip;
+
+	@CreditCardNumber(message = "Not a valid credit card number")
+	private String ccNumber;
+
+	@Pattern(regexp = "^(0[1-9]|1[0-2])([\\/])([1-9][0-9])$", message = "Must be formatted MM/YY")
+	private String ccExpiration;
+
+	@Digits(integer = 3, fraction = 0, message = "Invalid CVV")
+	private String ccCVV;
+
+	private List<Taco> tacos = new ArrayList<>();
+
+}
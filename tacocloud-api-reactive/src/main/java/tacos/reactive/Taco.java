@@ -0,0 +1,24 @@
+package tacos.reactive;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * The same taco, and the same JSON, as tacos.Taco. R2DBC doesn’t map associations, so a taco isn’t an entity: TacoRepository reads it, with its
+ * ingredients, from the rows of a join and writes it, and its join rows, with plain SQL.
+ */
+@Data
+public class Taco {
+
+	private Long id;
+
+	private Date createdAt;
+
+	private String name;
+
+	private List<Ingredient> ingredients = new ArrayList<>();
+
+}
@@ -0,0 +1,20 @@
+package tacos.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * The reactive variant of the Taco Cloud API: the /design, /ingredients and /orders end-points of tacocloud-api, served by Spring WebFlux on Netty
+ * over R2DBC. No request ever holds a thread while it waits on the database or on a slow client, so a handful of event loop threads (one per core)
+ * serve every open connection, where the servlet API needs one Tomcat thread per request in flight.
+ *
+ * It runs alongside the servlet application, on port 8082, against the same database (see application.yml).
+ */
+@SpringBootApplication
+public class TacocloudReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(TacocloudReactiveApplication.class, args);
+	}
+
+}
@@ -0,0 +1,9 @@
+package tacos.reactive.data;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import tacos.reactive.Ingredient;
+
+/* The reactive counterpart of tacos.data.IngredientRepository: every method returns a Mono or a Flux instead of blocking until the rows are read */
+public interface IngredientRepository extends ReactiveCrudRepository<Ingredient, String> {
+}
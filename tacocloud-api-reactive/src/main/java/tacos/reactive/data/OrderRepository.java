@@ -0,0 +1,218 @@
+package tacos.reactive.data;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tacos.reactive.Order;
+import tacos.reactive.Taco;
+
+/**
+ * Reads and writes orders with their tacos, like TacoRepository does for tacos. An order is read from the rows of one query that joins it with its
+ * tacos and their ingredients; its rows, and the rows of each of its tacos, are consecutive and folded back into one Order.
+ *
+ * An order is saved together with its entry in the order outbox, in the same transaction, like OrderController does in the servlet application: the
+ * OrderOutboxRelay of the servlet application sends it to the kitchen.
+ */
+@Repository
+public class OrderRepository {
+
+	private static final String SELECT_WITH_TACOS = "select o.id, o.placed_at, o.delivery_name, o.delivery_street, o.delivery_city, o.delivery_state,"
+			+ " o.delivery_zip, o.cc_number, o.cc_expiration, o.cccvv, t.id as taco_id, t.name as taco_name, t.created_at as taco_created_at,"
+			+ " i.id as ingredient_id, i.name as ingredient_name, i.type as ingredient_type from taco_order o"
+			+ " left join taco_order_tacos ot on ot.order_id = o.id left join taco t on t.id = ot.tacos_id"
+			+ " left join taco_ingredients ti on ti.taco_id = t.id left join ingredient i on i.id = ti.ingredients_id";
+
+	/* the column of each delivery and payment detail, as Hibernate names them */
+	private static final Map<String, String> DETAIL_COLUMNS;
+	static {
+		Map<String, String> columns = new LinkedHashMap<>();
+		columns.put("deliveryName", "delivery_name");
+		columns.put("deliveryStreet", "delivery_street");
+		columns.put("deliveryCity", "delivery_city");
+		columns.put("deliveryState", "delivery_state");
+		columns.put("deliveryZip", "delivery_zip");
+		columns.put("ccNumber", "cc_number");
+		columns.put("ccExpiration", "cc_expiration");
+		columns.put("ccCVV", "cccvv");
+		DETAIL_COLUMNS = Collections.unmodifiableMap(columns);
+	}
+
+	private final DatabaseClient client;
+	private final TransactionalOperator transactionalOperator;
+
+	public OrderRepository(DatabaseClient client, TransactionalOperator transactionalOperator) {
+		this.client = client;
+		this.transactionalOperator = transactionalOperator;
+	}
+
+	public Flux<Order> findAll() {
+		return orders(client.sql(SELECT_WITH_TACOS + " order by o.id, t.id"));
+	}
+
+	public Mono<Order> findById(Long id) {
+		return orders(client.sql(SELECT_WITH_TACOS + " where o.id = :id order by t.id").bind("id", id)).next();
+	}
+
+	/* the inserts that depend on the id of the order are deferred until the id is allocated */
+	public Mono<Order> save(Order order) {
+		order.setPlacedAt(new Date());
+		return Rows.nextId(client, "taco_order_seq")
+				.flatMap(id -> {
+					order.setId(id);
+					GenericExecuteSpec insert = client.sql("insert into taco_order (id, placed_at, delivery_name, delivery_street, delivery_city,"
+							+ " delivery_state, delivery_zip, cc_number, cc_expiration, cccvv) values (:id, :placedAt, :deliveryName, :deliveryStreet,"
+							+ " :deliveryCity, :deliveryState, :deliveryZip, :ccNumber, :ccExpiration, :ccCVV)")
+							.bind("placedAt", Rows.toLocalDateTime(order.getPlacedAt()));
+					return bindDetails(insert, order).then();
+				})
+				.then(Mono.defer(() -> insertTacos(order)))
+				.then(Mono.defer(() -> insertOutboxEntry(order.getId())))
+				.then(Mono.just(order))
+				.as(transactionalOperator::transactional);
+	}
+
+	/* replaces the details and the tacos of an existing order; completes empty if there is no order with the id of the given one */
+	public Mono<Order> update(Order order) {
+		return updateDetails(order)
+				.flatMap(updated -> client.sql("delete from taco_order_tacos where order_id = :id").bind("id", order.getId()).then()
+						.then(Mono.defer(() -> insertTacos(order)))
+						.then(Mono.just(updated)))
+				.as(transactionalOperator::transactional);
+	}
+
+	/* replaces the delivery and payment details of an existing order, but not its tacos; completes empty if there is no such order */
+	public Mono<Order> updateDetails(Order order) {
+		GenericExecuteSpec update = client.sql("update taco_order set delivery_name = :deliveryName, delivery_street = :deliveryStreet,"
+				+ " delivery_city = :deliveryCity, delivery_state = :deliveryState, delivery_zip = :deliveryZip, cc_number = :ccNumber,"
+				+ " cc_expiration = :ccExpiration, cccvv = :ccCVV where id = :id");
+		return bindDetails(update, order).fetch().rowsUpdated().filter(updated -> updated > 0).map(updated -> order);
+	}
+
+	public Mono<Boolean> existsById(Long id) {
+		return client.sql("select count(*) from taco_order where id = :id").bind("id", id).map(row -> row.get(0, Long.class) > 0).one();
+	}
+
+	/*
+	 * Writes the given delivery and payment details (keyed by their property name, see DETAIL_COLUMNS) of an existing order, and only them, with a
+	 * single UPDATE statement; completes with the number of orders updated, zero if there is no such order.
+	 */
+	public Mono<Integer> updateProperties(Long id, Map<String, String> properties) {
+		StringBuilder sql = new StringBuilder("update taco_order set ");
+		boolean first = true;
+		for (String property : properties.keySet()) {
+			String column = DETAIL_COLUMNS.get(property);
+			if (column == null) {
+				throw new IllegalArgumentException(property + " isn't a detail of an order");
+			}
+			if (!first) {
+				sql.append(", ");
+			}
+			sql.append(column).append(" = :").append(property);
+			first = false;
+		}
+		sql.append(" where id = :id");
+
+		GenericExecuteSpec update = client.sql(sql.toString()).bind("id", id);
+		for (Map.Entry<String, String> property : properties.entrySet()) {
+			update = Rows.bind(update, property.getKey(), property.getValue(), String.class);
+		}
+		return update.fetch().rowsUpdated();
+	}
+
+	public Mono<Void> deleteById(Long id) {
+		return client.sql("delete from taco_order_tacos where order_id = :id").bind("id", id).then()
+				.then(client.sql("delete from taco_order where id = :id").bind("id", id).then())
+				.as(transactionalOperator::transactional);
+	}
+
+	private GenericExecuteSpec bindDetails(GenericExecuteSpec spec, Order order) {
+		spec = spec.bind("id", order.getId());
+		spec = Rows.bind(spec, "deliveryName", order.getDeliveryName(), String.class);
+		spec = Rows.bind(spec, "deliveryStreet", order.getDeliveryStreet(), String.class);
+		spec = Rows.bind(spec, "deliveryCity", order.getDeliveryCity(), String.class);
+		spec = Rows.bind(spec, "deliveryState", order.getDeliveryState(), String.class);
+		spec = Rows.bind(spec, "deliveryZip", order.getDeliveryZip(), String.class);
+		spec = Rows.bind(spec, "ccNumber", order.getCcNumber(), String.class);
+		spec = Rows.bind(spec, "ccExpiration", order.getCcExpiration(), String.class);
+		return Rows.bind(spec, "ccCVV", order.getCcCVV(), String.class);
+	}
+
+	private Mono<Void> insertTacos(Order order) {
+		List<Taco> tacos = order.getTacos() == null ? Collections.emptyList() : order.getTacos();
+		return Flux.fromIterable(tacos)
+				.concatMap(taco -> client.sql("insert into taco_order_tacos (order_id, tacos_id) values (:orderId, :tacoId)")
+						.bind("orderId", order.getId())
+						.bind("tacoId", taco.getId())
+						.then())
+				.then();
+	}
+
+	/* the same row as a new tacos.OrderOutboxEntry: no attempt yet, and due right away */
+	private Mono<Void> insertOutboxEntry(Long orderId) {
+		LocalDateTime now = Rows.toLocalDateTime(new Date());
+		return Rows.nextId(client, "order_outbox_seq")
+				.flatMap(id -> client.sql("insert into order_outbox (id, order_id, created_at, attempts, next_attempt_at)"
+						+ " values (:id, :orderId, :createdAt, 0, :nextAttemptAt)")
+						.bind("id", id)
+						.bind("orderId", orderId)
+						.bind("createdAt", now)
+						.bind("nextAttemptAt", now)
+						.then());
+	}
+
+	private Flux<Order> orders(GenericExecuteSpec select) {
+		return select.map((row, metadata) -> order(row))
+				.all()
+				.bufferUntilChanged(Order::getId)
+				.map(OrderRepository::merge);
+	}
+
+	/* each row becomes an order with at most one taco, which has at most one ingredient */
+	private static Order order(Row row) {
+		Order order = new Order();
+		order.setId(row.get("id", Long.class));
+		order.setPlacedAt(Rows.toDate(row.get("placed_at", LocalDateTime.class)));
+		order.setDeliveryName(row.get("delivery_name", String.class));
+		order.setDeliveryStreet(row.get("delivery_street", String.class));
+		order.setDeliveryCity(row.get("delivery_city", String.class));
+		order.setDeliveryState(row.get("delivery_state", String.class));
+		order.setDeliveryZip(row.get("delivery_zip", String.class));
+		order.setCcNumber(row.get("cc_number", String.class));
+		order.setCcExpiration(row.get("cc_expiration", String.class));
+		order.setCcCVV(row.get("cccvv", String.class));
+		if (row.get("taco_id", Long.class) != null) {
+			order.getTacos().add(TacoRepository.taco(row, "taco_"));
+		}
+		return order;
+	}
+
+	/* the tacos of the rows are consecutive, so a taco is merged into the previous one when they have the same id */
+	private static Order merge(List<Order> rows) {
+		Order order = rows.get(0);
+		List<Taco> tacos = order.getTacos();
+		for (int i = 1; i < rows.size(); i++) {
+			for (Taco taco : rows.get(i).getTacos()) {
+				Taco last = tacos.isEmpty() ? null : tacos.get(tacos.size() - 1);
+				if (last != null && last.getId().equals(taco.getId())) {
+					last.getIngredients().addAll(taco.getIngredients());
+				} else {
+					tacos.add(taco);
+				}
+			}
+		}
+		return order;
+	}
+
+}
@@ -0,0 +1,48 @@
+package tacos.reactive.data;
+
+import java.util.Arrays;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+
+import io.r2dbc.spi.ConnectionFactory;
+import tacos.reactive.Ingredient.Type;
+
+/*
+ * Spring Data R2DBC writes enums as their name, whereas JPA wrote the type of an ingredient as its ordinal (Ingredient.type has no @Enumerated). These
+ * converters keep the two applications reading and writing the same column the same way.
+ */
+@Configuration
+public class R2dbcConfig {
+
+	@Bean
+	public R2dbcCustomConversions r2dbcCustomConversions(ConnectionFactory connectionFactory) {
+		return R2dbcCustomConversions.of(DialectResolver.getDialect(connectionFactory), Arrays.asList(new TypeWriter(), new TypeReader()));
+	}
+
+	@WritingConverter
+	static class TypeWriter implements Converter<Type, Integer> {
+
+		@Override
+		public Integer convert(Type type) {
+			return type.ordinal();
+		}
+
+	}
+
+	@ReadingConverter
+	static class TypeReader implements Converter<Integer, Type> {
+
+		@Override
+		public Type convert(Integer ordinal) {
+			return Type.values()[ordinal];
+		}
+
+	}
+
+}
@@ -0,0 +1,55 @@
+package tacos.reactive.data;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Mono;
+import tacos.reactive.Ingredient;
+
+/*
+ * What TacoRepository and OrderRepository share to read and write rows with plain SQL.
+ */
+final class Rows {
+
+	private Rows() {
+	}
+
+	/*
+	 * The next id of a pooled sequence of the servlet application (see tacos.PooledSequenceGenerator). Each value of these sequences is the first of
+	 * a block of ids: using the value itself, and none of the rest of its block, never collides with the ids Hibernate hands out from the blocks it
+	 * reserves for itself. It only wastes the rest of the block, which a bigint can afford.
+	 */
+	static Mono<Long> nextId(DatabaseClient client, String sequence) {
+		return client.sql("select nextval('" + sequence + "')").map(row -> row.get(0, Long.class)).one();
+	}
+
+	/* DatabaseClient refuses to bind a null value without its type */
+	static GenericExecuteSpec bind(GenericExecuteSpec spec, String name, Object value, Class<?> type) {
+		return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+	}
+
+	/* Hibernate maps java.util.Date to a TIMESTAMP (without time zone) column, which R2DBC drivers read and write as a LocalDateTime */
+	static LocalDateTime toLocalDateTime(Date date) {
+		return date == null ? null : new Timestamp(date.getTime()).toLocalDateTime();
+	}
+
+	static Date toDate(LocalDateTime dateTime) {
+		return dateTime == null ? null : new Date(Timestamp.valueOf(dateTime).getTime());
+	}
+
+	/* the ingredient of a row joined with the ingredient table, whose columns are prefixed with 'ingredient_'; null if the join found none */
+	static Ingredient ingredient(Row row) {
+		String id = row.get("ingredient_id", String.class);
+		if (id == null) {
+			return null;
+		}
+		Integer type = row.get("ingredient_type", Integer.class);
+		return new Ingredient(id, row.get("ingredient_name", String.class), type == null ? null : Ingredient.Type.values()[type]);
+	}
+
+}
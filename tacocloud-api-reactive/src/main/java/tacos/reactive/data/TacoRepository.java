@@ -0,0 +1,96 @@
+package tacos.reactive.data;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tacos.reactive.Ingredient;
+import tacos.reactive.Taco;
+
+/**
+ * Reads and writes tacos with their ingredients. R2DBC has no notion of an association, so instead of Taco.ingredients being loaded by the
+ * persistence provider, each read joins the tacos with their ingredients, and the consecutive rows of a taco are folded back into one Taco.
+ */
+@Repository
+public class TacoRepository {
+
+	private static final String SELECT_WITH_INGREDIENTS = "select t.id, t.name, t.created_at, i.id as ingredient_id, i.name as ingredient_name,"
+			+ " i.type as ingredient_type from %s t left join taco_ingredients ti on ti.taco_id = t.id left join ingredient i on i.id = ti.ingredients_id";
+
+	private final DatabaseClient client;
+	private final TransactionalOperator transactionalOperator;
+
+	public TacoRepository(DatabaseClient client, TransactionalOperator transactionalOperator) {
+		this.client = client;
+		this.transactionalOperator = transactionalOperator;
+	}
+
+	/* the limit applies to the tacos, in the derived table, rather than to the rows of the join */
+	public Flux<Taco> findRecent(int limit) {
+		String tacos = "(select id, name, created_at from taco order by created_at desc, id desc limit :limit)";
+		return tacos(client.sql(String.format(SELECT_WITH_INGREDIENTS, tacos) + " order by t.created_at desc, t.id desc").bind("limit", limit));
+	}
+
+	public Mono<Taco> findById(Long id) {
+		return tacos(client.sql(String.format(SELECT_WITH_INGREDIENTS, "taco") + " where t.id = :id").bind("id", id)).next();
+	}
+
+	public Mono<Taco> save(Taco taco) {
+		taco.setCreatedAt(new Date());
+		List<Ingredient> ingredients = taco.getIngredients() == null ? Collections.emptyList() : taco.getIngredients();
+		return Rows.nextId(client, "taco_seq")
+				.flatMap(id -> {
+					taco.setId(id);
+					GenericExecuteSpec insert = client.sql("insert into taco (id, name, created_at) values (:id, :name, :createdAt)")
+							.bind("id", id)
+							.bind("createdAt", Rows.toLocalDateTime(taco.getCreatedAt()));
+					return Rows.bind(insert, "name", taco.getName(), String.class).then();
+				})
+				.thenMany(Flux.fromIterable(ingredients).concatMap(ingredient -> client
+						.sql("insert into taco_ingredients (taco_id, ingredients_id) values (:tacoId, :ingredientId)")
+						.bind("tacoId", taco.getId())
+						.bind("ingredientId", ingredient.getId())
+						.then()))
+				.then(Mono.just(taco))
+				.as(transactionalOperator::transactional);
+	}
+
+	/* each row becomes a taco with at most one ingredient, and the consecutive tacos of the same id are merged into the first one */
+	private Flux<Taco> tacos(GenericExecuteSpec select) {
+		return select.map((row, metadata) -> taco(row, ""))
+				.all()
+				.bufferUntilChanged(Taco::getId)
+				.map(TacoRepository::merge);
+	}
+
+	/* the columns of the taco are named with the given prefix, OrderRepository selects them along with the columns of the orders */
+	static Taco taco(Row row, String prefix) {
+		Taco taco = new Taco();
+		taco.setId(row.get(prefix + "id", Long.class));
+		taco.setName(row.get(prefix + "name", String.class));
+		taco.setCreatedAt(Rows.toDate(row.get(prefix + "created_at", LocalDateTime.class)));
+		Ingredient ingredient = Rows.ingredient(row);
+		if (ingredient != null) {
+			taco.getIngredients().add(ingredient);
+		}
+		return taco;
+	}
+
+	static Taco merge(List<Taco> rows) {
+		Taco taco = rows.get(0);
+		for (int i = 1; i < rows.size(); i++) {
+			taco.getIngredients().addAll(rows.get(i).getIngredients());
+		}
+		return taco;
+	}
+
+}
@@ -0,0 +1,55 @@
+package tacos.reactive.web.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tacos.reactive.Taco;
+import tacos.reactive.data.TacoRepository;
+
+/**
+ * The /design end-points of tacos.web.api.DesignTacoController. The handler methods return a Flux or a Mono instead of the tacos themselves:
+ * WebFlux subscribes to them and writes the response as the rows arrive, without any thread waiting on the database in between.
+ */
+@RestController
+@RequestMapping(path = "/design", produces = "application/json")
+@CrossOrigin(origins = "*")// for Angular app
+public class DesignTacoController {
+
+	/* as many tacos as the servlet application keeps in tacos.data.RecentTacos */
+	private static final int RECENT_TACOS = 12;
+
+	private TacoRepository tacoRepo;
+
+	public DesignTacoController(TacoRepository tacoRepo) {
+		this.tacoRepo = tacoRepo;
+	}
+
+	@GetMapping("/recent")
+	public Flux<Taco> recentTacos() {
+		return tacoRepo.findRecent(RECENT_TACOS);
+	}
+
+	@GetMapping("/{id}")
+	public Mono<ResponseEntity<Taco>> tacoById(@PathVariable("id") Long id) {
+		return tacoRepo.findById(id)
+				.map(taco -> new ResponseEntity<>(taco, HttpStatus.OK))
+				.defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+	}
+
+	@PostMapping(consumes = "application/json")
+	@ResponseStatus(HttpStatus.CREATED)
+	public Mono<Taco> postTaco(@RequestBody Mono<Taco> taco) {
+		return taco.flatMap(tacoRepo::save);
+	}
+
+}
@@ -0,0 +1,81 @@
+package tacos.reactive.web.api;
+
+import java.net.URI;
+
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tacos.reactive.Ingredient;
+import tacos.reactive.data.IngredientRepository;
+
+/**
+ * The /ingredients end-points of tacos.web.api.IngredientController.
+ *
+ * Spring Data R2DBC tells a new entity from an existing one by its id being null, which never holds for ingredients, whose ids are assigned by the
+ * client. So ReactiveCrudRepository.save() would always issue an UPDATE: new ingredients are inserted with R2dbcEntityTemplate instead.
+ */
+@RestController
+@RequestMapping(path = "/ingredients", produces = "application/json")
+@CrossOrigin(origins = "*")// for Angular app
+public class IngredientController {
+
+	private IngredientRepository repo;
+	private R2dbcEntityTemplate template;
+
+	public IngredientController(IngredientRepository repo, R2dbcEntityTemplate template) {
+		this.repo = repo;
+		this.template = template;
+	}
+
+	@GetMapping
+	public Flux<Ingredient> allIngredients() {
+		return repo.findAll();
+	}
+
+	@GetMapping("/{id}")
+	public Mono<Ingredient> byId(@PathVariable String id) {
+		return repo.findById(id);
+	}
+
+	/* like the servlet end-point, a PUT creates the ingredient if it doesn’t exist yet */
+	@PutMapping("/{id}")
+	public Mono<Void> updateIngredient(@PathVariable String id, @RequestBody Mono<Ingredient> ingredient) {
+		return ingredient.flatMap(replacement -> {
+			if (!replacement.getId().equals(id)) {
+				return Mono.error(new IllegalStateException("Given ingredient's ID doesn't match the ID in the path."));
+			}
+			return repo.existsById(id).flatMap(exists -> exists ? template.update(replacement) : template.insert(replacement));
+		}).then();
+	}
+
+	/* the Location of the new ingredient is built from the URI of the request, so it has the host and port the client called */
+	@PostMapping
+	public Mono<ResponseEntity<Ingredient>> postIngredient(@RequestBody Mono<Ingredient> ingredient, ServerHttpRequest request) {
+		return ingredient.flatMap(template::insert)
+				.map(saved -> ResponseEntity.created(location(request, saved)).body(saved));
+	}
+
+	@DeleteMapping("/{id}")
+	public Mono<Void> deleteIngredient(@PathVariable String id) {
+		return repo.deleteById(id);
+	}
+
+	private static URI location(ServerHttpRequest request, Ingredient ingredient) {
+		return UriComponentsBuilder.fromUri(request.getURI()).replaceQuery(null).path("/{id}").buildAndExpand(ingredient.getId()).encode().toUri();
+	}
+
+}
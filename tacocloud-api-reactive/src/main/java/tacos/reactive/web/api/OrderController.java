@@ -0,0 +1,154 @@
+package tacos.reactive.web.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.validation.Validator;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tacos.reactive.Order;
+import tacos.reactive.data.OrderRepository;
+
+/**
+ * The /orders end-points of tacos.web.api.OrderController, but for POST /orders/batch.
+ *
+ * A Flux of orders is written as a JSON array when the client accepts "application/json", and as newline delimited JSON, one order per line as it is
+ * read, when it accepts "application/x-ndjson": the streaming export of the servlet application comes for free.
+ */
+@RestController
+@RequestMapping(path = "/orders", produces = "application/json")
+@CrossOrigin(origins = "*")// for Angular app
+public class OrderController {
+
+	/* the properties of an order a PATCH can change, and those it can’t, as in the servlet application */
+	private static final List<String> PATCHABLE_PROPERTIES = Arrays.asList("deliveryName", "deliveryStreet", "deliveryCity", "deliveryState",
+			"deliveryZip", "ccNumber", "ccExpiration", "ccCVV");
+	private static final List<String> READ_ONLY_PROPERTIES = Arrays.asList("id", "placedAt", "user", "tacos");
+
+	private OrderRepository repo;
+	private Validator validator;
+
+	public OrderController(OrderRepository repo, Validator validator) {
+		this.repo = repo;
+		this.validator = validator;
+	}
+
+	@GetMapping(produces = { "application/json", "application/x-ndjson" })
+	public Flux<Order> allOrders() {
+		return repo.findAll();
+	}
+
+	@PostMapping(consumes = "application/json")
+	@ResponseStatus(HttpStatus.CREATED)
+	public Mono<Order> postOrder(@RequestBody Mono<Order> order) {
+		return order.flatMap(repo::save);
+	}
+
+	/* replaces the order with the id of the path, or answers 404 (NOT FOUND) if there is none */
+	@PutMapping(path = "/{orderId}", consumes = "application/json")
+	public Mono<ResponseEntity<Order>> putOrder(@PathVariable("orderId") Long orderId, @RequestBody Mono<Order> order) {
+		return order.flatMap(replacement -> {
+			replacement.setId(orderId);
+			return repo.update(replacement);
+		}).flatMap(updated -> repo.findById(orderId))
+				.map(ResponseEntity::ok)
+				.defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+	}
+
+	/*
+	 * A JSON Merge Patch (RFC 7396) of the delivery and payment details of the order, with the semantics and status codes of the servlet end-point
+	 * (see tacos.web.api.OrderController.patchOrder()): each member of the patch replaces the property of the same name, a null member clears it,
+	 * and the patched properties, and only them, are written with a single UPDATE statement. The response is a 204 (NO CONTENT), or:
+	 *
+	 * 400 (BAD REQUEST) if the patch isn’t a JSON object, or has a member that isn’t a property of an order;
+	 *
+	 * 404 (NOT FOUND) if there is no such order;
+	 *
+	 * 409 (CONFLICT) if the patch changes a property that can’t be patched (the id, placement date, user or tacos of the order);
+	 *
+	 * 422 (UNPROCESSABLE ENTITY) if a patched value isn’t a string, or fails the validation of its property (clearing a delivery detail, for example).
+	 *
+	 * The checks don’t block, so they run on the thread that decoded the patch; only the UPDATE (or, for an empty patch, the existence check) goes to
+	 * the database.
+	 */
+	@PatchMapping(path = "/{orderId}", consumes = { "application/merge-patch+json", "application/json" })
+	public Mono<ResponseEntity<List<String>>> patchOrder(@PathVariable("orderId") Long orderId, @RequestBody Mono<JsonNode> patch) {
+		return patch.flatMap(changes -> applyPatch(orderId, changes));
+	}
+
+	private Mono<ResponseEntity<List<String>>> applyPatch(Long orderId, JsonNode patch) {
+		if (!patch.isObject()) {
+			return Mono.just(new ResponseEntity<>(Collections.singletonList("The patch must be a JSON object"), HttpStatus.BAD_REQUEST));
+		}
+
+		List<String> unknown = new ArrayList<>();
+		List<String> readOnly = new ArrayList<>();
+		patch.fieldNames().forEachRemaining(name -> {
+			if (READ_ONLY_PROPERTIES.contains(name)) {
+				/* restating the id of the order changes nothing */
+				if (!(name.equals("id") && patch.get(name).canConvertToLong() && patch.get(name).asLong() == orderId)) {
+					readOnly.add(name + ": can't be patched");
+				}
+			} else if (!PATCHABLE_PROPERTIES.contains(name)) {
+				unknown.add(name + ": not a property of an order");
+			}
+		});
+		if (!unknown.isEmpty()) {
+			return Mono.just(new ResponseEntity<>(unknown, HttpStatus.BAD_REQUEST));
+		}
+		if (!readOnly.isEmpty()) {
+			return Mono.just(new ResponseEntity<>(readOnly, HttpStatus.CONFLICT));
+		}
+
+		/* in the order of PATCHABLE_PROPERTIES, so that the same properties always give the same statement */
+		Map<String, String> changes = new LinkedHashMap<>();
+		List<String> invalid = new ArrayList<>();
+		for (String property : PATCHABLE_PROPERTIES) {
+			JsonNode value = patch.get(property);
+			if (value == null) {
+				continue;
+			}
+			if (!value.isNull() && !value.isTextual()) {
+				invalid.add(property + ": must be a string");
+				continue;
+			}
+			String text = value.isNull() ? null : value.textValue();
+			validator.validateValue(Order.class, property, text).forEach(v -> invalid.add(property + ": " + v.getMessage()));
+			changes.put(property, text);
+		}
+		if (!invalid.isEmpty()) {
+			return Mono.just(new ResponseEntity<>(invalid, HttpStatus.UNPROCESSABLE_ENTITY));
+		}
+
+		Mono<Boolean> found = changes.isEmpty() ? repo.existsById(orderId) : repo.updateProperties(orderId, changes).map(updated -> updated > 0);
+		return found.map(exists -> new ResponseEntity<>(exists ? HttpStatus.NO_CONTENT : HttpStatus.NOT_FOUND));
+	}
+
+	@DeleteMapping("/{orderId}")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public Mono<Void> deleteOrder(@PathVariable("orderId") Long orderId) {
+		return repo.deleteById(orderId);
+	}
+
+}
@@ -0,0 +1,51 @@
+-- The tables of the JPA entities the reactive API reads and writes, as Hibernate creates them (with the naming strategies of Spring Boot).
+-- Only run against the embedded database, for development and tests.
+create sequence if not exists taco_seq start with 1 increment by 50;
+create sequence if not exists taco_order_seq start with 1 increment by 50;
+create sequence if not exists order_outbox_seq start with 1 increment by 50;
+
+create table if not exists ingredient (
+	id varchar(255) not null primary key,
+	name varchar(255),
+	type integer
+);
+
+create table if not exists taco (
+	id bigint not null primary key,
+	created_at timestamp,
+	name varchar(255)
+);
+create index if not exists taco_created_at_id_idx on taco (created_at, id);
+
+create table if not exists taco_ingredients (
+	taco_id bigint not null references taco (id),
+	ingredients_id varchar(255) not null references ingredient (id)
+);
+
+create table if not exists taco_order (
+	id bigint not null primary key,
+	placed_at timestamp,
+	user_id bigint,
+	delivery_name varchar(255),
+	delivery_street varchar(255),
+	delivery_city varchar(255),
+	delivery_state varchar(255),
+	delivery_zip varchar(255),
+	cc_number varchar(255),
+	cc_expiration varchar(255),
+	cccvv varchar(255)
+);
+
+create table if not exists taco_order_tacos (
+	order_id bigint not null references taco_order (id),
+	tacos_id bigint not null references taco (id)
+);
+
+create table if not exists order_outbox (
+	id bigint not null primary key,
+	order_id bigint,
+	created_at timestamp,
+	attempts integer not null,
+	next_attempt_at timestamp
+);
+create index if not exists order_outbox_order_id_idx on order_outbox (order_id);
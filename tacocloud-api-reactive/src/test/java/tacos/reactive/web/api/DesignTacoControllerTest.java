@@ -0,0 +1,70 @@
+package tacos.reactive.web.api;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import tacos.reactive.Ingredient;
+import tacos.reactive.Ingredient.Type;
+import tacos.reactive.Taco;
+
+/* The /design end-points, against the embedded H2 database created from schema.sql and data.sql */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class DesignTacoControllerTest {
+
+	@Autowired
+	private WebTestClient client;
+
+	@Test
+	void postedTacoIsReadBackWithItsIngredients() {
+		Taco saved = postTaco(client, "Reactive Carnivore");
+		assertNotNull(saved.getId());
+		assertNotNull(saved.getCreatedAt());
+
+		client.get().uri("/design/{id}", saved.getId()).accept(MediaType.APPLICATION_JSON).exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.name").isEqualTo("Reactive Carnivore")
+				.jsonPath("$.ingredients.length()").isEqualTo(2)
+				.jsonPath("$.ingredients[?(@.id == 'GRBF')].name").isEqualTo("Ground Beef");
+	}
+
+	@Test
+	void newestTacoComesFirstInRecentTacos() {
+		postTaco(client, "Older Taco");
+		Taco newest = postTaco(client, "Newest Taco");
+
+		client.get().uri("/design/recent").accept(MediaType.APPLICATION_JSON).exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$[0].id").isEqualTo(newest.getId())
+				.jsonPath("$[0].ingredients.length()").isEqualTo(2)
+				.jsonPath("$.length()").value(length -> assertTrue((Integer) length <= 12));
+	}
+
+	@Test
+	void missingTacoIsNotFound() {
+		client.get().uri("/design/{id}", -1).accept(MediaType.APPLICATION_JSON).exchange()
+				.expectStatus().isNotFound();
+	}
+
+	/* a taco of two of the ingredients of data.sql, as saved by POST /design */
+	static Taco postTaco(WebTestClient client, String name) {
+		Taco taco = new Taco();
+		taco.setName(name);
+		taco.setIngredients(Arrays.asList(new Ingredient("FLTO", "Flour Tortilla", Type.WRAP), new Ingredient("GRBF", "Ground Beef", Type.PROTEIN)));
+		return client.post().uri("/design").contentType(MediaType.APPLICATION_JSON).bodyValue(taco).exchange()
+				.expectStatus().isCreated()
+				.expectBody(Taco.class)
+				.returnResult().getResponseBody();
+	}
+
+}
@@ -0,0 +1,86 @@
+package tacos.reactive.web.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import tacos.reactive.Ingredient;
+import tacos.reactive.Ingredient.Type;
+
+/* The /ingredients end-points, against the embedded H2 database created from schema.sql and data.sql */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class IngredientControllerTest {
+
+	@Autowired
+	private WebTestClient client;
+
+	@LocalServerPort
+	private int port;
+
+	@Test
+	void allIngredientsAreRead() {
+		client.get().uri("/ingredients").accept(MediaType.APPLICATION_JSON).exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$[?(@.id == 'COTO')].name").isEqualTo("Corn Tortilla")
+				.jsonPath("$[?(@.id == 'SRCR')].type").isEqualTo("SAUCE");
+	}
+
+	@Test
+	void ingredientIsReadById() {
+		client.get().uri("/ingredients/{id}", "TMTO").accept(MediaType.APPLICATION_JSON).exchange()
+				.expectStatus().isOk()
+				.expectBody(Ingredient.class).isEqualTo(new Ingredient("TMTO", "Diced Tomatoes", Type.VEGGIES));
+	}
+
+	@Test
+	void postedIngredientIsLocatedOnTheHostOfTheRequest() {
+		Ingredient guacamole = new Ingredient("GUAC", "Guacamole", Type.SAUCE);
+		URI location = client.post().uri("/ingredients").contentType(MediaType.APPLICATION_JSON).bodyValue(guacamole).exchange()
+				.expectStatus().isCreated()
+				.expectBody(Ingredient.class).isEqualTo(guacamole)
+				.returnResult().getResponseHeaders().getLocation();
+		assertEquals(URI.create("http://localhost:" + port + "/ingredients/GUAC"), location);
+
+		client.get().uri(location).accept(MediaType.APPLICATION_JSON).exchange()
+				.expectStatus().isOk()
+				.expectBody(Ingredient.class).isEqualTo(guacamole);
+	}
+
+	@Test
+	void putCreatesOrReplacesTheIngredient() {
+		client.put().uri("/ingredients/{id}", "PICO").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(new Ingredient("PICO", "Pico", Type.SAUCE)).exchange()
+				.expectStatus().isOk();
+		client.put().uri("/ingredients/{id}", "PICO").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(new Ingredient("PICO", "Pico de Gallo", Type.SAUCE)).exchange()
+				.expectStatus().isOk();
+
+		client.get().uri("/ingredients/{id}", "PICO").accept(MediaType.APPLICATION_JSON).exchange()
+				.expectStatus().isOk()
+				.expectBody(Ingredient.class).isEqualTo(new Ingredient("PICO", "Pico de Gallo", Type.SAUCE));
+	}
+
+	@Test
+	void deletedIngredientIsGone() {
+		client.post().uri("/ingredients").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(new Ingredient("JALA", "Jalapenos", Type.VEGGIES)).exchange()
+				.expectStatus().isCreated();
+
+		client.delete().uri("/ingredients/{id}", "JALA").exchange()
+				.expectStatus().isOk();
+		client.get().uri("/ingredients").accept(MediaType.APPLICATION_JSON).exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$[?(@.id == 'JALA')]").doesNotExist();
+	}
+
+}
@@ -0,0 +1,166 @@
+package tacos.reactive.web.api;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.reactive.server.WebTestClient.ResponseSpec;
+
+import tacos.reactive.Order;
+import tacos.reactive.Taco;
+
+/* The /orders end-points, against the embedded H2 database created from schema.sql and data.sql */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class OrderControllerTest {
+
+	@Autowired
+	private WebTestClient client;
+
+	@Test
+	void postedOrderIsListedWithItsTacos() {
+		Order saved = postOrder(client, "Craig Walls");
+		assertNotNull(saved.getId());
+		assertNotNull(saved.getPlacedAt());
+
+		client.get().uri("/orders").accept(MediaType.APPLICATION_JSON).exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$[?(@.id == %d)].deliveryName", saved.getId()).isEqualTo("Craig Walls")
+				.jsonPath("$[?(@.id == %d)].tacos[0].name", saved.getId()).isEqualTo("Order Taco")
+				.jsonPath("$[?(@.id == %d)].tacos[0].ingredients[?(@.id == 'GRBF')].name", saved.getId()).isEqualTo("Ground Beef");
+	}
+
+	@Test
+	void ordersAreStreamedAsNewlineDelimitedJson() {
+		Order saved = postOrder(client, "Streamed Order");
+
+		client.get().uri("/orders").accept(MediaType.APPLICATION_NDJSON).exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.expectBodyList(Order.class).value(orders -> assertTrue(orders.stream().anyMatch(order -> order.getId().equals(saved.getId()))));
+	}
+
+	@Test
+	void putReplacesTheOrder() {
+		Order saved = postOrder(client, "Before Put");
+		saved.setDeliveryName("After Put");
+		saved.setDeliveryCity("Plano");
+
+		client.put().uri("/orders/{id}", saved.getId()).contentType(MediaType.APPLICATION_JSON).bodyValue(saved).exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.deliveryName").isEqualTo("After Put")
+				.jsonPath("$.deliveryCity").isEqualTo("Plano")
+				.jsonPath("$.tacos.length()").isEqualTo(1);
+	}
+
+	@Test
+	void putOfMissingOrderIsNotFound() {
+		Order order = order("Nobody", Collections.emptyList());
+
+		client.put().uri("/orders/{id}", -1).contentType(MediaType.APPLICATION_JSON).bodyValue(order).exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	void mergePatchWritesOnlyThePatchedDetails() {
+		Order saved = postOrder(client, "Before Patch");
+
+		patch(saved.getId(), "{\"deliveryName\": \"After Patch\", \"deliveryZip\": \"75001\"}")
+				.expectStatus().isNoContent();
+		client.get().uri("/orders").accept(MediaType.APPLICATION_JSON).exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$[?(@.id == %d)].deliveryName", saved.getId()).isEqualTo("After Patch")
+				.jsonPath("$[?(@.id == %d)].deliveryZip", saved.getId()).isEqualTo("75001")
+				.jsonPath("$[?(@.id == %d)].deliveryState", saved.getId()).isEqualTo("CO")
+				.jsonPath("$[?(@.id == %d)].tacos[0].name", saved.getId()).isEqualTo("Order Taco");
+	}
+
+	@Test
+	void patchThatIsNotAnObjectOrHasUnknownMembersIsBadRequest() {
+		Order saved = postOrder(client, "Bad Patch");
+
+		patch(saved.getId(), "[\"deliveryName\"]").expectStatus().isBadRequest();
+		patch(saved.getId(), "{\"deliveryNmae\": \"Typo\"}").expectStatus().isBadRequest()
+				.expectBody().jsonPath("$[0]").isEqualTo("deliveryNmae: not a property of an order");
+	}
+
+	@Test
+	void patchOfReadOnlyPropertyIsConflict() {
+		Order saved = postOrder(client, "Read Only");
+
+		patch(saved.getId(), "{\"id\": " + saved.getId() + ", \"deliveryCity\": \"Plano\"}").expectStatus().isNoContent();
+		patch(saved.getId(), "{\"tacos\": []}").expectStatus().isEqualTo(HttpStatus.CONFLICT)
+				.expectBody().jsonPath("$[0]").isEqualTo("tacos: can't be patched");
+	}
+
+	@Test
+	void invalidPatchIsUnprocessable() {
+		Order saved = postOrder(client, "Invalid Patch");
+
+		patch(saved.getId(), "{\"deliveryName\": null}").expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY)
+				.expectBody().jsonPath("$[0]").isEqualTo("deliveryName: Delivery name is required");
+		patch(saved.getId(), "{\"ccCVV\": 123}").expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY)
+				.expectBody().jsonPath("$[0]").isEqualTo("ccCVV: must be a string");
+	}
+
+	@Test
+	void patchOfMissingOrderIsNotFound() {
+		patch(-1L, "{\"deliveryName\": \"Nobody\"}").expectStatus().isNotFound();
+		patch(-1L, "{}").expectStatus().isNotFound();
+	}
+
+	@Test
+	void deletedOrderIsGone() {
+		Order saved = postOrder(client, "To Be Deleted");
+
+		client.delete().uri("/orders/{id}", saved.getId()).exchange()
+				.expectStatus().isNoContent();
+		client.get().uri("/orders").accept(MediaType.APPLICATION_JSON).exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$[?(@.id == %d)]", saved.getId()).doesNotExist();
+	}
+
+	/* sent as bytes, which no encoder turns into a JSON string */
+	private ResponseSpec patch(Long orderId, String mergePatch) {
+		return client.patch().uri("/orders/{id}", orderId).contentType(MediaType.valueOf("application/merge-patch+json"))
+				.bodyValue(mergePatch.getBytes(StandardCharsets.UTF_8)).exchange();
+	}
+
+	/* an order of one new taco, as saved by POST /orders */
+	static Order postOrder(WebTestClient client, String deliveryName) {
+		Taco taco = DesignTacoControllerTest.postTaco(client, "Order Taco");
+		return client.post().uri("/orders").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(order(deliveryName, Collections.singletonList(taco))).exchange()
+				.expectStatus().isCreated()
+				.expectBody(Order.class)
+				.returnResult().getResponseBody();
+	}
+
+	static Order order(String deliveryName, List<Taco> tacos) {
+		Order order = new Order();
+		order.setDeliveryName(deliveryName);
+		order.setDeliveryStreet("1234 Culinary Blvd.");
+		order.setDeliveryCity("Foodsville");
+		order.setDeliveryState("CO");
+		order.setDeliveryZip("81019");
+		order.setCcNumber("4111111111111111");
+		order.setCcExpiration("10/29");
+		order.setCcCVV("123");
+		order.setTacos(tacos);
+		return order;
+	}
+
+}
@@ -0,0 +1,101 @@
+package tacos.web.api;
+
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.rest.webmvc.config.RepositoryRestConfigurer;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.LinkRelationProvider;
+import org.springframework.hateoas.server.core.AnnotationLinkRelationProvider;
+import org.springframework.hateoas.server.core.DefaultLinkRelationProvider;
+import org.springframework.hateoas.server.core.DelegatingLinkRelationProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Binary representations of the API, for the service-to-service calls that spend most of their time parsing JSON text: besides application/json
+ * (and application/hal+json), the end-points produce application/cbor and application/x-jackson-smile, selected by the Accept header. Both are
+ * written by Jackson from the very same objects as the JSON, so a client reads the same properties whatever the format.
+ *
+ * The mappers are built with Spring Boot’s Jackson2ObjectMapperBuilder, so they follow the same spring.jackson settings as the JSON one, and know the
+ * HAL module, so that a CollectionModel (see RecentTacosController) keeps its _embedded and _links structure. The converters are registered with
+ * Spring MVC as beans (they take the place of the default CBOR and Smile converters, after the JSON one, so JSON stays the default), and with Spring
+ * Data REST through configureHttpMessageConverters().
+ *
+ * Since the same URL now has several representations, every response carries a Vary: Accept header, so that HTTP caches don’t serve a CBOR body
+ * to a client that asked for JSON.
+ */
+@Configuration
+public class BinaryFormatsConfig implements WebMvcConfigurer, RepositoryRestConfigurer {
+
+	/* the relation names of the _embedded collections: those of @Relation (see TacoRepresentation), or else derived from the class name */
+	private static final LinkRelationProvider RELATION_PROVIDER = new DelegatingLinkRelationProvider(new AnnotationLinkRelationProvider(),
+			new DefaultLinkRelationProvider());
+
+	private final MappingJackson2CborHttpMessageConverter cborConverter;
+
+	private final MappingJackson2SmileHttpMessageConverter smileConverter;
+
+	public BinaryFormatsConfig(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+		this.cborConverter = new MappingJackson2CborHttpMessageConverter(withHal(objectMapperBuilder.factory(new CBORFactory()).build()));
+		this.smileConverter = new MappingJackson2SmileHttpMessageConverter(withHal(objectMapperBuilder.factory(new SmileFactory()).build()));
+	}
+
+	/* also used by the benchmarks, to read and write the representations of the API the way it does */
+	public static ObjectMapper withHal(ObjectMapper mapper) {
+		mapper.registerModule(new Jackson2HalModule());
+		mapper.setHandlerInstantiator(
+				new Jackson2HalModule.HalHandlerInstantiator(RELATION_PROVIDER, CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+		return mapper;
+	}
+
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+		return cborConverter;
+	}
+
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+		return smileConverter;
+	}
+
+	@Override
+	public void configureHttpMessageConverters(List<HttpMessageConverter<?>> messageConverters) {
+		messageConverters.add(cborConverter);
+		messageConverters.add(smileConverter);
+		/*
+		 * Spring Data REST has no converter for the bodies RepresentationCache serialized ahead of time, unlike Spring MVC. It goes first: the HAL
+		 * converter can write a byte[] too, as a base64 JSON string.
+		 */
+		messageConverters.add(0, new ByteArrayHttpMessageConverter());
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new HandlerInterceptor() {
+			@Override
+			public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+				response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+				return true;
+			}
+		});
+	}
+
+}
@@ -3,8 +3,6 @@ package tacos.web.api;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -12,11 +10,13 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import tacos.Taco;
+import tacos.data.RecentTacos;
 import tacos.data.TacoRepository;
 
 /**
@@ -26,31 +26,47 @@ import tacos.data.TacoRepository;
  * need to also annotate all of the handler methods with @ResponseBody to achieve the same result.
  *
  * The produces attribute in the @RequestMapping annotation, specifies that any of the handler methods in DesignTacoController will only handle
- * requests if the request’s Accept header includes “application/json”
+ * requests if the request’s Accept header includes “application/json”, or one of the binary formats of BinaryFormatsConfig
  */
 @RestController
-@RequestMapping(path = "/design", produces = "application/json")
+@RequestMapping(path = "/design", produces = { "application/json", "application/cbor", "application/x-jackson-smile" })
 @CrossOrigin(origins = "*")// for Angular app
 public class DesignTacoController {
 
 	private TacoRepository tacoRepo;
+	private RecentTacos recentTacos;
+	private RepresentationCache representations;
+	private IdempotencyStore idempotencyStore;
+	private TacoTags tacoTags;
 
 	@Autowired
-	public DesignTacoController(TacoRepository tacoRepo) {
+	public DesignTacoController(TacoRepository tacoRepo, RecentTacos recentTacos, RepresentationCache representations,
+			IdempotencyStore idempotencyStore, TacoTags tacoTags) {
 		this.tacoRepo = tacoRepo;
+		this.recentTacos = recentTacos;
+		this.representations = representations;
+		this.idempotencyStore = idempotencyStore;
+		this.tacoTags = tacoTags;
 	}
 
 	@GetMapping("/recent")
-	public Iterable<Taco> recentTacos() {
+	@QueryBudget(0)
+	public ResponseEntity<byte[]> recentTacos(WebRequest request) {
 //	public CollectionModel<EntityModel<Taco>> recentTacos() {
 //	public CollectionModel<TacoRepresentation> recentTacos() {
 		/*
 		 * constructs a PageRequest object that specifies that you only want the first (0th) page of 12 results, sorted in descending order by the
 		 * taco’s creation date. The content of this page of results is returned to the client, this is what your Angular code needs
 		 * (recents.component.ts in Angular project)
+		 *
+		 * The 12 most recent tacos are kept in memory by RecentTacos, which is written through by postTaco() below, so this end-point doesn’t run
+		 * any query at all. Clients that need to page further use the cursor links of /api/tacos/recent (see RecentTacosController)
+		 *
+		 * Nor is it serialized for every request: the RepresentationCache keeps its body, serialized and compressed, for every version of
+		 * RecentTacos, and answers the conditional GETs with it
 		 */
-		PageRequest page = PageRequest.of(0, 12, Sort.by("createdAt").descending());
-		return tacoRepo.findAll(page).getContent();
+		return representations.respond("recent-tacos-design", recentTacos.getVersion(), RepresentationCache.JSON_FORMATS, request,
+				recentTacos::getTacos);
 //		List<Taco> tacos = tacoRepo.findAll(page).getContent();
 
 		/*
@@ -95,12 +111,25 @@ public class DesignTacoController {
 	/**
 	 * This is an end-point that fetches a single Taco by its ID. By using a placeholder variable '{id}' in the handler method’s path and accepting a
 	 * path variable using @PathVariable annotation, you can capture the ID and use it to look up the Taco object through the repository
+	 *
+	 * Tacos are hardly ever changed once created, so the end-point answers conditional GETs: the ETag of the taco is kept by TacoTags, computed when
+	 * the taco is written or first read. If the client’s If-None-Match still matches, the 304 (NOT MODIFIED) is sent without looking up the taco
+	 * (see IngredientController)
 	 */
 	@GetMapping("/{id}")
-	public ResponseEntity<Taco> tacoById(@PathVariable("id") Long id) {
-		Optional<Taco> optTaco = tacoRepo.findById(id);
+	@QueryBudget(1)
+	public ResponseEntity<Taco> tacoById(@PathVariable("id") Long id, WebRequest request) {
+		String tag = tacoTags.get(id);
+		if (tag != null && request.checkNotModified(tag)) {
+			return null;
+		}
+		Optional<Taco> optTaco = tacoRepo.findWithIngredientsById(id);
 		if (optTaco.isPresent()) {
-			return new ResponseEntity<>(optTaco.get(), HttpStatus.OK);
+			Taco taco = optTaco.get();
+			if (tag == null && request.checkNotModified(tacoTags.put(taco))) {
+				return null;
+			}
+			return new ResponseEntity<>(taco, HttpStatus.OK);
 		}
 //		return null;
 		return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
@@ -122,10 +151,17 @@ public class DesignTacoController {
 	 * The @RequestBody annotation indicates that the body of the request should be converted to a Taco object and bound to the parameter. This
 	 * annotation is important, without it, Spring MVC would assume that you want request parameters (either query parameters or form parameters) to
 	 * be bound to the Taco object
+	 *
+	 * Like POST /orders, the end-point honors the Idempotency-Key header (see IdempotencyStore): a retried request gets the taco created by the first
+	 * one, and the taco is added to the recent tacos only once, after its transaction committed.
 	 */
-	@PostMapping(consumes = "application/json")
-	@ResponseStatus(HttpStatus.CREATED)
-	public Taco postTaco(@RequestBody Taco taco) {
-		return tacoRepo.save(taco);
+	@PostMapping(consumes = { "application/json", "application/cbor", "application/x-jackson-smile" })
+	public ResponseEntity<Taco> postTaco(@RequestBody Taco taco,
+			@RequestHeader(name = IdempotencyStore.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+		return idempotencyStore.execute("POST /design", idempotencyKey, taco, Taco.class, () -> tacoRepo.save(taco), saved -> {
+			recentTacos.add(saved);
+			tacoTags.put(saved);
+			representations.invalidate("recent-tacos");
+		});
 	}
 }
@@ -0,0 +1,43 @@
+package tacos.web.api;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Builds the strong ETags of the read-mostly end-points from a hash of the content they represent (SHA-256, of which the first 96 bits are kept).
+ * The tags are computed once per version of the data (see RepresentationCache and TacoTags) rather than for each response, so a request whose
+ * If-None-Match still matches is answered with a 304 (NOT MODIFIED) without touching the repository or Jackson.
+ *
+ * Since the tag depends on nothing but the data, every instance of the application hands out the same tag for the same data, before and after a
+ * restart, and a client balanced onto another instance still gets its 304.
+ */
+final class ETags {
+
+	private static final int HASH_LENGTH = 12;
+
+	private ETags() {
+	}
+
+	/* the tag of the given resource, whose content has the given hash */
+	static String of(String resource, String hash) {
+		return "\"" + resource + "-" + hash + "\"";
+	}
+
+	/* a MessageDigest isn't thread safe, and getting one is cheap next to hashing a response */
+	static String hash(byte[] content) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, HASH_LENGTH));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static String hash(String content) {
+		return hash(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,255 @@
+package tacos.web.api;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tacos.IdempotencyRecord;
+import tacos.data.IdempotencyRecordRepository;
+
+/**
+ * Honors the Idempotency-Key header of the POSTs that create something (POST /orders and POST /design), so that a client retrying a request after a
+ * timeout doesn’t create the same order twice. The first request with a key runs as usual and its response is remembered; a request with the same
+ * key gets that response back (with an Idempotent-Replayed header), without running its transaction again.
+ *
+ * The keys whose request completed are kept in memory in a LinkedHashMap in access order, bounded to max-keys entries (the least recently used is
+ * dropped first), and expire ttl milliseconds after they were first used. The keys whose request is still being processed are kept apart, in a map
+ * of their own, until the request completes: they are never evicted, so a retry can’t run the request a second time while the first one is still
+ * running, however many other keys come in meanwhile. That map only holds as many keys as there are requests in flight. With tacocloud.idempotency.persistent, every key is also saved as an IdempotencyRecord in the
+ * transaction of the request, so that it survives a restart and is shared by all the instances of the application: a key missing from memory is
+ * looked up in the table, and two instances racing on the same key can’t both commit.
+ *
+ * A request reusing a key with a different body is answered with a 422 (UNPROCESSABLE ENTITY), and a request whose key is still being processed
+ * (the client retried before the first attempt completed) with a 409 (CONFLICT), as the client can safely retry it later. A request that fails
+ * forgets its key, so that it can be retried.
+ */
+@Component
+public class IdempotencyStore {
+
+	public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+	public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+	private static final int MAX_KEY_LENGTH = 200;
+
+	private IdempotencyRecordRepository recordRepo;
+	private TransactionTemplate transactionTemplate;
+	private ObjectMapper objectMapper;
+
+	@Value("${tacocloud.idempotency.max-keys:10000}")
+	private int maxKeys;
+
+	@Value("${tacocloud.idempotency.ttl:86400000}")
+	private long ttl;
+
+	@Value("${tacocloud.idempotency.persistent:false}")
+	private boolean persistent;
+
+	/* both maps are guarded by the monitor of completed, which is only held for map operations, never while the database is accessed */
+	private final Map<String, Entry> completed = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			return size() > maxKeys;
+		}
+	};
+
+	private final Map<String, Entry> inFlight = new HashMap<>();
+
+	public IdempotencyStore(IdempotencyRecordRepository recordRepo, TransactionTemplate transactionTemplate, ObjectMapper objectMapper) {
+		this.recordRepo = recordRepo;
+		this.transactionTemplate = transactionTemplate;
+		this.objectMapper = objectMapper;
+	}
+
+	public <T> ResponseEntity<T> execute(String endpoint, String key, Object request, Class<T> responseType, Supplier<T> action) {
+		return execute(endpoint, key, request, responseType, action, created -> {
+		});
+	}
+
+	/*
+	 * Runs the action in a transaction, and answers with a 201 (CREATED) and what it created, unless the key was already used. afterCommit is
+	 * called with what the action created once its transaction committed, and is never called for a replay. Without a key, the action is simply
+	 * run.
+	 */
+	public <T> ResponseEntity<T> execute(String endpoint, String key, Object request, Class<T> responseType, Supplier<T> action,
+			Consumer<? super T> afterCommit) {
+		if (key == null) {
+			T created = transactionTemplate.execute(status -> action.get());
+			afterCommit.accept(created);
+			return new ResponseEntity<>(created, HttpStatus.CREATED);
+		}
+		if (key.trim().isEmpty() || key.length() > MAX_KEY_LENGTH) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+
+		String scopedKey = endpoint + " " + key;
+		String fingerprint = fingerprint(request);
+		Entry entry;
+		synchronized (completed) {
+			entry = inFlight.get(scopedKey);
+			if (entry == null) {
+				entry = completed.get(scopedKey);
+				if (entry != null && entry.expired(ttl)) {
+					completed.remove(scopedKey);
+					entry = null;
+				}
+			}
+			if (entry != null) {
+				return replay(entry, fingerprint, responseType);
+			}
+			entry = new Entry(fingerprint, new Date(), null, null);
+			inFlight.put(scopedKey, entry);
+		}
+
+		/* this request owns the key from now on: any other request with it gets a 409 (CONFLICT) until it completes */
+		try {
+			if (persistent) {
+				Optional<IdempotencyRecord> record = recordRepo.findById(scopedKey);
+				if (record.isPresent() && !expired(record.get().getCreatedAt(), ttl)) {
+					Entry stored = Entry.of(record.get(), objectMapper.readValue(record.get().getBody(), responseType));
+					complete(scopedKey, entry, stored);
+					return replay(stored, fingerprint, responseType);
+				}
+			}
+			T created = transactionTemplate.execute(status -> {
+				T result = action.get();
+				if (persistent) {
+					recordRepo.save(new IdempotencyRecord(scopedKey, fingerprint, HttpStatus.CREATED.value(), json(result)));
+				}
+				return result;
+			});
+			complete(scopedKey, entry, new Entry(fingerprint, entry.createdAt, HttpStatus.CREATED, created));
+			afterCommit.accept(created);
+			return new ResponseEntity<>(created, HttpStatus.CREATED);
+		} catch (DataIntegrityViolationException e) {
+			forget(scopedKey, entry);
+			/* another instance committed the same key first, and its response will be replayed once this one is retried */
+			if (persistent && recordRepo.existsById(scopedKey)) {
+				return new ResponseEntity<>(HttpStatus.CONFLICT);
+			}
+			throw e;
+		} catch (IOException e) {
+			forget(scopedKey, entry);
+			throw new IllegalStateException("Can't read the response stored for idempotency key " + key, e);
+		} catch (RuntimeException | Error e) {
+			forget(scopedKey, entry);
+			throw e;
+		}
+	}
+
+	/* drops the expired keys, from memory and from the table */
+	@Scheduled(fixedDelayString = "${tacocloud.idempotency.purge-interval:60000}")
+	public void purge() {
+		synchronized (completed) {
+			for (Iterator<Entry> it = completed.values().iterator(); it.hasNext();) {
+				Entry entry = it.next();
+				if (entry.expired(ttl)) {
+					it.remove();
+				}
+			}
+		}
+		if (persistent) {
+			recordRepo.deleteCreatedBefore(new Date(System.currentTimeMillis() - ttl));
+		}
+	}
+
+	private static <T> ResponseEntity<T> replay(Entry entry, String fingerprint, Class<T> responseType) {
+		if (!entry.fingerprint.equals(fingerprint)) {
+			return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
+		}
+		if (entry.body == null) {
+			return new ResponseEntity<>(HttpStatus.CONFLICT);
+		}
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(IDEMPOTENT_REPLAYED, "true");
+		return new ResponseEntity<>(responseType.cast(entry.body), headers, entry.status);
+	}
+
+	/* moves the key from the requests in flight to the completed ones, with the response of the request that owned it */
+	private void complete(String scopedKey, Entry owner, Entry response) {
+		synchronized (completed) {
+			inFlight.remove(scopedKey, owner);
+			completed.put(scopedKey, response);
+		}
+	}
+
+	private void forget(String scopedKey, Entry owner) {
+		synchronized (completed) {
+			inFlight.remove(scopedKey, owner);
+		}
+	}
+
+	/* the request as Jackson reads it, so that two bodies differing only by their formatting (or format) have the same fingerprint */
+	private String fingerprint(Object request) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(json(request));
+			return Base64.getEncoder().encodeToString(digest);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private byte[] json(Object value) {
+		try {
+			return objectMapper.writeValueAsBytes(value);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Can't serialize " + value, e);
+		}
+	}
+
+	private static boolean expired(Date createdAt, long ttl) {
+		return createdAt.getTime() + ttl < System.currentTimeMillis();
+	}
+
+	/* the key of a request in flight has neither status nor body yet; completing it replaces its entry with one that has them */
+	private static class Entry {
+
+		private final String fingerprint;
+
+		private final Date createdAt;
+
+		private final HttpStatus status;
+
+		private final Object body;
+
+		private Entry(String fingerprint, Date createdAt, HttpStatus status, Object body) {
+			this.fingerprint = fingerprint;
+			this.createdAt = createdAt;
+			this.status = status;
+			this.body = body;
+		}
+
+		private static Entry of(IdempotencyRecord record, Object body) {
+			return new Entry(record.getFingerprint(), record.getCreatedAt(), HttpStatus.valueOf(record.getStatus()), body);
+		}
+
+		private boolean expired(long ttl) {
+			return IdempotencyStore.expired(createdAt, ttl);
+		}
+
+	}
+
+}
@@ -0,0 +1,36 @@
+package tacos.web.api;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.core.annotation.HandleAfterCreate;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.stereotype.Component;
+
+import tacos.Ingredient;
+import tacos.data.IngredientCatalog;
+
+/**
+ * Spring Data REST exposes IngredientRepository under /api/ingredients, and its writes go straight to the repository rather than through the
+ * IngredientCatalog. This handler listens to the events Spring Data REST publishes after each write and reloads the catalog snapshot, so that
+ * IngredientController never serves a stale catalog.
+ */
+@Component
+@RepositoryEventHandler(Ingredient.class)
+public class IngredientCatalogEventHandler {
+
+	private IngredientCatalog catalog;
+
+	@Autowired
+	public IngredientCatalogEventHandler(IngredientCatalog catalog) {
+		this.catalog = catalog;
+	}
+
+	@HandleAfterCreate
+	@HandleAfterSave
+	@HandleAfterDelete
+	public void refreshCatalog(Ingredient ingredient) {
+		catalog.refresh();
+	}
+
+}
@@ -1,7 +1,6 @@
 package tacos.web.api;
 
 import java.net.URI;
-import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
@@ -16,36 +15,53 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import tacos.Ingredient;
-import tacos.data.IngredientRepository;
+import tacos.data.IngredientCatalog;
 
 /*
  * similar to DesignTacoController
  */
 @RestController
-@RequestMapping(path = "/ingredients", produces = "application/json")
+@RequestMapping(path = "/ingredients", produces = { "application/json", "application/cbor", "application/x-jackson-smile" })
 @CrossOrigin(origins = "*")// for Angular app
 public class IngredientController {
 
-	private IngredientRepository repo;
+	/*
+	 * The controller reads and writes through the IngredientCatalog instead of IngredientRepository: reads are served from the in-memory snapshot of
+	 * the catalog without any database round-trip, and writes swap in a new snapshot once they are saved.
+	 */
+	private IngredientCatalog catalog;
+	private RepresentationCache representations;
 
 	@Autowired
-	public IngredientController(IngredientRepository repo) {
-		this.repo = repo;
+	public IngredientController(IngredientCatalog catalog, RepresentationCache representations) {
+		this.catalog = catalog;
+		this.representations = representations;
 	}
 
 	/*
 	 * If the ingredients already created in the database (at the boot time), you can navigate to http://localhost:8080/ingredients to see the result
+	 *
+	 * Both read end-points answer conditional GETs. Their ETag is a hash of the body, computed once per version of the catalog, so checkNotModified()
+	 * can compare it with the request’s If-None-Match header without anything being looked up or serialized again. When it matches,
+	 * checkNotModified() sets the 304 (NOT MODIFIED) status, and returning null tells Spring MVC that the response is complete.
+	 *
+	 * The bodies are serialized, and compressed, once per version of the catalog and per media type, and then served as they are by the
+	 * RepresentationCache, which also answers the conditional GETs.
 	 */
 	@GetMapping
-	public Iterable<Ingredient> allIngredients() {
-		return repo.findAll();
+	@QueryBudget(1) // only the very first read of the catalog loads its snapshot
+	public ResponseEntity<byte[]> allIngredients(WebRequest request) {
+		return representations.respond("ingredients", catalog.getVersion(), RepresentationCache.JSON_FORMATS, request, catalog::findAll);
 	}
 
 	@GetMapping("/{id}")
-	public Optional<Ingredient> byId(@PathVariable String id) {
-		return repo.findById(id);
+	@QueryBudget(1)
+	public ResponseEntity<byte[]> byId(@PathVariable String id, WebRequest request) {
+		return representations.respond("ingredient-" + id, catalog.getVersion(), RepresentationCache.JSON_FORMATS, request,
+				() -> catalog.findById(id).orElse(null));
 	}
 
 	@PutMapping("/{id}")
@@ -53,12 +69,14 @@ public class IngredientController {
 		if (!ingredient.getId().equals(id)) {
 			throw new IllegalStateException("Given ingredient's ID doesn't match the ID in the path.");
 		}
-		repo.save(ingredient);
+		catalog.save(ingredient);
+		representations.invalidate("ingredient");
 	}
 
 	@PostMapping
 	public ResponseEntity<Ingredient> postIngredient(@RequestBody Ingredient ingredient) {
-		Ingredient saved = repo.save(ingredient);
+		Ingredient saved = catalog.save(ingredient);
+		representations.invalidate("ingredient");
 		HttpHeaders headers = new HttpHeaders();
 		headers.setLocation(URI.create("http://localhost:8080/ingredients/" + ingredient.getId()));
 		return new ResponseEntity<>(saved, headers, HttpStatus.CREATED);
@@ -66,7 +84,11 @@ public class IngredientController {
 
 	@DeleteMapping("/{id}")
 	public void deleteIngredient(@PathVariable String id) {
-		repo.deleteById(id);
+		try {
+			catalog.deleteById(id);
+		} finally {
+			representations.invalidate("ingredient");
+		}
 	}
 
 }
@@ -1,6 +1,14 @@
 package tacos.web.api;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.server.mvc.RepresentationModelAssemblerSupport;
+import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
+import org.springframework.web.util.UriUtils;
 
 import tacos.Ingredient;
 
@@ -23,4 +31,24 @@ class IngredientRepresentationAssembler extends RepresentationModelAssemblerSupp
 		return createModelWithId(ingredient.getId(), ingredient);
 	}
 
-}
\ No newline at end of file
+	/*
+	 * The default toCollectionModel() calls toModel() for each ingredient, and each of them builds its self link with WebMvcLinkBuilder, which
+	 * inspects the controller’s mappings and the current request (including its X-Forwarded-* headers) all over again. Instead, the base URI of
+	 * IngredientController is resolved once for the whole collection, and each self link is that base URI plus the ingredient’s id.
+	 */
+	@Override
+	public CollectionModel<IngredientRepresentation> toCollectionModel(Iterable<? extends Ingredient> ingredients) {
+		return toCollectionModel(ingredients, WebMvcLinkBuilder.linkTo(IngredientController.class).toUri().toString());
+	}
+
+	CollectionModel<IngredientRepresentation> toCollectionModel(Iterable<? extends Ingredient> ingredients, String ingredientsHref) {
+		List<IngredientRepresentation> representations = new ArrayList<>();
+		for (Ingredient ingredient : ingredients) {
+			IngredientRepresentation representation = new IngredientRepresentation(ingredient);
+			representation.add(Link.of(ingredientsHref + "/" + UriUtils.encodePathSegment(ingredient.getId(), StandardCharsets.UTF_8)));
+			representations.add(representation);
+		}
+		return CollectionModel.of(representations);
+	}
+
+}
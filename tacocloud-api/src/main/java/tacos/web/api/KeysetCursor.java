@@ -0,0 +1,50 @@
+package tacos.web.api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import lombok.Getter;
+
+/**
+ * The continuation token of a keyset pagination: the recent tacos, paged on (createdAt, id), and the order history of a user, paged on (placedAt,
+ * id). It carries the date and id of the last item of a page, and is handed to clients as an opaque URL-safe Base64 string so that they don’t build
+ * (or depend on) its content. A client only follows the 'next' link it was given.
+ */
+class KeysetCursor {
+
+	@Getter
+	private final Date date;
+
+	@Getter
+	private final Long id;
+
+	private KeysetCursor(Date date, Long id) {
+		this.date = date;
+		this.id = id;
+	}
+
+	public static KeysetCursor of(Date date, Long id) {
+		return new KeysetCursor(date, id);
+	}
+
+	public String encode() {
+		String key = date.getTime() + ":" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/* returns null if the token wasn’t produced by encode(), the controllers answer that with a 400 (BAD REQUEST) */
+	public static KeysetCursor decode(String token) {
+		try {
+			String key = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+			int separator = key.indexOf(':');
+			if (separator < 0) {
+				return null;
+			}
+			return new KeysetCursor(new Date(Long.parseLong(key.substring(0, separator))), Long.valueOf(key.substring(separator + 1)));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,38 @@
+package tacos.web.api;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * The outcome of one order of a POST /orders/batch request, in the same position as the order in the request. The status is the one the order would
+ * have received from POST /orders: 201 (CREATED) with the id of the saved order, or 400 (BAD REQUEST) with the validation errors that rejected it,
+ * or the error of the NDJSON line that couldn’t be read as an order.
+ */
+@Getter
+public class OrderBatchResult {
+
+	private final int index;
+
+	private final int status;
+
+	private final Long id;
+
+	private final List<String> errors;
+
+	private OrderBatchResult(int index, int status, Long id, List<String> errors) {
+		this.index = index;
+		this.status = status;
+		this.id = id;
+		this.errors = errors;
+	}
+
+	public static OrderBatchResult created(int index, Long id) {
+		return new OrderBatchResult(index, 201, id, null);
+	}
+
+	public static OrderBatchResult invalid(int index, List<String> errors) {
+		return new OrderBatchResult(index, 400, null, errors);
+	}
+
+}
@@ -1,7 +1,36 @@
 package tacos.web.api;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,80 +39,408 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import tacos.Order;
+import tacos.OrderOutboxEntry;
+import tacos.User;
+import tacos.data.IngredientCatalog;
+import tacos.data.OrderHistoryEntry;
+import tacos.data.OrderOutboxRepository;
 import tacos.data.OrderRepository;
+import tacos.data.OrderTacoName;
 
 @RestController
-@RequestMapping(path = "/orders", produces = "application/json")
+@RequestMapping(path = "/orders", produces = { "application/json", "application/cbor", "application/x-jackson-smile" })
 @CrossOrigin(origins = "*")// for Angular app
 public class OrderController {
 
+	/* the number of orders inserted between two flushes of a batch, keep it in line with hibernate.jdbc.batch_size (in application.yml) */
+	private static final int BATCH_SIZE = 50;
+
+	/* the number of orders in a page of the order history of a user, and in a page of the listing of all of them */
+	private static final int HISTORY_PAGE_SIZE = 20;
+	private static final int LISTING_PAGE_SIZE = 20;
+
+	/* the number of orders streamed between two clears of the persistence context, as many as the fetch size of OrderRepository.streamAll() */
+	private static final int STREAM_CHUNK_SIZE = 100;
+
+	/* the properties of an order a PATCH can change, and those it can’t */
+	private static final List<String> PATCHABLE_PROPERTIES = Arrays.asList("deliveryName", "deliveryStreet", "deliveryCity", "deliveryState",
+			"deliveryZip", "ccNumber", "ccExpiration", "ccCVV");
+	private static final List<String> READ_ONLY_PROPERTIES = Arrays.asList("id", "placedAt", "user", "tacos");
+
 	private OrderRepository repo;
+	private OrderOutboxRepository outboxRepo;
+	private TransactionTemplate transactionTemplate;
+	private EntityManager entityManager;
+	private ObjectWriter ndjsonWriter;
+	private ObjectReader orderReader;
+	private Validator validator;
+	private IngredientCatalog ingredientCatalog;
+	private IdempotencyStore idempotencyStore;
 
-	public OrderController(OrderRepository repo) {
+	public OrderController(OrderRepository repo, OrderOutboxRepository outboxRepo, TransactionTemplate transactionTemplate, EntityManager entityManager,
+			ObjectMapper objectMapper, Validator validator, IngredientCatalog ingredientCatalog, IdempotencyStore idempotencyStore) {
 		this.repo = repo;
+		this.outboxRepo = outboxRepo;
+		this.transactionTemplate = transactionTemplate;
+		this.entityManager = entityManager;
+		/* the writer must not close the response stream after each order, the next order is written to the same stream */
+		this.ndjsonWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		this.orderReader = objectMapper.readerFor(Order.class);
+		this.validator = validator;
+		this.ingredientCatalog = ingredientCatalog;
+		this.idempotencyStore = idempotencyStore;
 	}
 
-	@GetMapping(produces = "application/json")
-	public Iterable<Order> allOrders() {
-		return repo.findAll();
+	/*
+	 * The orders are listed LISTING_PAGE_SIZE at a time, by id, so that the rows of a page (an order spans one row per ingredient of each of its tacos)
+	 * stay bounded whatever the size of the table. A page is read with two queries: the ids of its orders, from the primary key, then the orders with
+	 * their user, their tacos and the ingredient ids of those tacos as flat rows (see OrderRepository.findRows()), folded back into OrderSummary
+	 * objects. No entity is loaded into the persistence context, and the ingredients come from the IngredientCatalog.
+	 *
+	 * The body is still the array of the orders: a full page carries the link to the next one in a Link header (RFC 8288), with the id of its last
+	 * order as the 'after' parameter. The whole table is exported with the NDJSON stream of streamOrders().
+	 */
+	@GetMapping(produces = { "application/json", "application/cbor", "application/x-jackson-smile" })
+	@QueryBudget(2)
+	public ResponseEntity<List<OrderSummary>> allOrders(@RequestParam(name = "after", required = false) Long after) {
+		PageRequest page = PageRequest.of(0, LISTING_PAGE_SIZE);
+		List<Long> ids = after == null ? repo.findIds(page) : repo.findIdsAfter(after, page);
+		/* an empty 'in' list isn’t valid SQL on every database, and there would be nothing to read anyway */
+		List<OrderSummary> orders = ids.isEmpty() ? Collections.emptyList() : OrderSummary.of(repo.findRows(ids), ingredientCatalog);
+
+		HttpHeaders headers = new HttpHeaders();
+		if (ids.size() == LISTING_PAGE_SIZE) {
+			String next = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("after", ids.get(LISTING_PAGE_SIZE - 1)).toUriString();
+			headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+		}
+		return new ResponseEntity<>(orders, headers, HttpStatus.OK);
 	}
 
-	@PostMapping(consumes = "application/json")
-	@ResponseStatus(HttpStatus.CREATED)
-	public Order postOrder(@RequestBody Order order) {
-		return repo.save(order);
+	/*
+	 * The order history of the authenticated user, for the "reorder" feature: newest first, HISTORY_PAGE_SIZE orders at a time. Like the recent tacos,
+	 * it is paged with a keyset on (placedAt, id) carried by an opaque cursor (see KeysetCursor), so a page deep in the history of a user costs the
+	 * same index seek as the first one (see OrderRepository.findHistory()). The orders and the names of their tacos are read with two queries of
+	 * projections, and the credit card details are never read at all.
+	 *
+	 * A 401 (UNAUTHORIZED) is returned when nobody is logged in, and a 400 (BAD REQUEST) when the cursor wasn’t produced by this end-point.
+	 */
+	@GetMapping(path = "/mine", produces = { "application/json", "application/cbor", "application/x-jackson-smile" })
+	@QueryBudget(2)
+	public ResponseEntity<OrderHistory> myOrders(@AuthenticationPrincipal User user, @RequestParam(name = "cursor", required = false) String cursor) {
+		if (user == null) {
+			return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+		}
+		List<OrderHistoryEntry> entries;
+		PageRequest page = PageRequest.of(0, HISTORY_PAGE_SIZE);
+		if (cursor == null) {
+			entries = repo.findHistory(user, page);
+		} else {
+			KeysetCursor after = KeysetCursor.decode(cursor);
+			if (after == null) {
+				return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+			}
+			entries = repo.findHistoryBefore(user, after.getDate(), after.getId(), page);
+		}
+
+		String next = null;
+		if (entries.size() == HISTORY_PAGE_SIZE) {
+			OrderHistoryEntry last = entries.get(HISTORY_PAGE_SIZE - 1);
+			next = ServletUriComponentsBuilder.fromCurrentRequest()
+					.replaceQueryParam("cursor", KeysetCursor.of(last.getPlacedAt(), last.getId()).encode()).toUriString();
+		}
+		/* an empty 'in' list isn’t valid SQL on every database, and there would be nothing to read anyway */
+		List<OrderTacoName> tacoNames = entries.isEmpty() ? Collections.emptyList()
+				: repo.findTacoNames(entries.stream().map(OrderHistoryEntry::getId).collect(Collectors.toList()));
+		return new ResponseEntity<>(OrderHistory.of(entries, tacoNames, next), HttpStatus.OK);
 	}
 
 	/*
-	 * PUT is the semantic opposite of GET. Whereas GET requests are for transferring data from the server to the client, PUT requests are for sending
-	 * data from the client to the server.
+	 * The streaming variant of allOrders(), selected by a request whose Accept header is "application/x-ndjson" (newline delimited JSON). Instead of
+	 * materializing every order with findAll(), the orders are read from a JDBC cursor, each with its user (see OrderRepository.streamAll()), and
+	 * written to the response as a single line of JSON each. The heap used by the export stays the same whether there are a hundred orders or a few
+	 * million, since the persistence context is cleared every STREAM_CHUNK_SIZE orders, letting them (and the tacos loaded with them) be collected.
+	 *
+	 * The orders of a chunk are all read from the cursor before the first of them is written, so that they are all in the persistence context when
+	 * the tacos of the first one are loaded: the @BatchSize of Order.tacos then loads the tacos of 25 orders at a time, and that of Taco.ingredients
+	 * the ingredients of 25 tacos at a time, rather than one query per order and per taco. A taco ordered again within the chunk isn’t read again.
+	 *
+	 * The transaction is opened with TransactionTemplate rather than @Transactional, because the cursor has to stay open while the response is being
+	 * written, which happens inside this method.
 	 */
-	@PutMapping(path = "/{orderId}", consumes = "application/json")
-	public Order putOrder(@RequestBody Order order) {
-		return repo.save(order);
+	@GetMapping(produces = "application/x-ndjson")
+	public void streamOrders(HttpServletResponse response) throws IOException {
+		response.setContentType("application/x-ndjson");
+		OutputStream out = response.getOutputStream();
+		transactionTemplate.execute(status -> {
+			try (Stream<Order> orders = repo.streamAll()) {
+				List<Order> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+				Iterator<Order> cursor = orders.iterator();
+				while (cursor.hasNext()) {
+					chunk.add(cursor.next());
+					if (chunk.size() == STREAM_CHUNK_SIZE || !cursor.hasNext()) {
+						for (Order order : chunk) {
+							ndjsonWriter.writeValue(out, order);
+							out.write('\n');
+						}
+						chunk.clear();
+						entityManager.clear();
+					}
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return null;
+		});
+		out.flush();
 	}
 
 	/*
-	 * Whereas PUT is really intended to perform a 'wholesale replacement' operation rather than an 'update' operation. In contrast, the purpose of
-	 * HTTP PATCH is to perform a patch or partial update of resource data. Instead of completely replacing the Order with the new data sent in, it
-	 * inspects each field of the incoming Order object and applies any non-null values to the existing Order.
+	 * The order is saved together with an outbox entry, in the same transaction, rather than being sent to the kitchen right away: the
+	 * OrderOutboxRelay sends it later, so the request doesn’t wait on the message broker, and the order can’t be lost if the broker is down.
+	 *
+	 * A client that retries after a timeout sends the same Idempotency-Key header: the order is then placed (and sent to the kitchen) only once, and
+	 * the retry gets the response of the first attempt (see IdempotencyStore, which also runs the transaction).
+	 */
+	@PostMapping(consumes = { "application/json", "application/cbor", "application/x-jackson-smile" })
+	public ResponseEntity<Order> postOrder(@RequestBody Order order,
+			@RequestHeader(name = IdempotencyStore.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+		return idempotencyStore.execute("POST /orders", idempotencyKey, order, Order.class, () -> {
+			Order saved = repo.save(order);
+			outboxRepo.save(new OrderOutboxEntry(saved.getId()));
+			return saved;
+		});
+	}
+
+	/*
+	 * Bulk ingestion for partner integrations that send orders in bursts of thousands. The orders can be sent either as a JSON array or as a stream of
+	 * newline delimited JSON orders (Content-type "application/x-ndjson"), which is read one order at a time instead of being parsed up front.
+	 *
+	 * Each order is validated on its own, and the valid ones are all inserted in a single transaction. With hibernate.jdbc.batch_size and
+	 * hibernate.order_inserts set (in application.yml), Hibernate groups the inserts of the orders and of their join rows into JDBC batches, and
+	 * flushing and clearing the persistence context every BATCH_SIZE orders keeps it from growing with the size of the request. Like postOrder(), each
+	 * order is saved with its outbox entry, for the OrderOutboxRelay to send it to the kitchen.
+	 *
+	 * The response reports a result per order (see OrderBatchResult): a rejected order doesn’t prevent the others from being saved. But if the
+	 * database itself fails, the whole transaction is rolled back and none of the orders is saved.
 	 */
-	@PatchMapping(path = "/{orderId}", consumes = "application/json")
-	public Order patchOrder(@PathVariable("orderId") Long orderId, @RequestBody Order patch) {
+	@PostMapping(path = "/batch", consumes = "application/json")
+	public List<OrderBatchResult> postOrders(@RequestBody List<Order> orders) {
+		return saveAll(orders.stream().map(BatchItem::of).iterator());
+	}
 
-		Order order = repo.findById(orderId).get();
-		if (patch.getDeliveryName() != null) {
-			order.setDeliveryName(patch.getDeliveryName());
+	/*
+	 * Each line is read on its own (see NdjsonItems), so a line that isn’t an order, malformed JSON or a property of the wrong type, is rejected with
+	 * a 400 (BAD REQUEST) naming the line, like an order that fails validation, rather than failing the whole batch.
+	 */
+	@PostMapping(path = "/batch", consumes = "application/x-ndjson")
+	public List<OrderBatchResult> postOrderStream(HttpServletRequest request) throws IOException {
+		try (BufferedReader lines = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+			return saveAll(new NdjsonItems(lines));
 		}
-		if (patch.getDeliveryStreet() != null) {
-			order.setDeliveryStreet(patch.getDeliveryStreet());
+	}
+
+	private List<OrderBatchResult> saveAll(Iterator<BatchItem> items) {
+		return transactionTemplate.execute(status -> {
+			List<OrderBatchResult> results = new ArrayList<>();
+			List<Order> pending = new ArrayList<>(BATCH_SIZE);
+			List<Integer> pendingIndexes = new ArrayList<>(BATCH_SIZE);
+			int index = 0;
+			while (items.hasNext()) {
+				BatchItem item = items.next();
+				List<String> errors = item.errors;
+				if (errors == null) {
+					Set<ConstraintViolation<Order>> violations = validator.validate(item.order);
+					errors = violations.stream().map(v -> v.getPropertyPath() + ": " + v.getMessage()).collect(Collectors.toList());
+				}
+				if (errors.isEmpty()) {
+					entityManager.persist(item.order);
+					entityManager.persist(new OrderOutboxEntry(item.order.getId()));
+					pending.add(item.order);
+					pendingIndexes.add(index);
+				} else {
+					results.add(OrderBatchResult.invalid(index, errors));
+				}
+				index++;
+				if (pending.size() == BATCH_SIZE) {
+					flush(pending, pendingIndexes, results);
+				}
+			}
+			flush(pending, pendingIndexes, results);
+			results.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+			return results;
+		});
+	}
+
+	private void flush(List<Order> pending, List<Integer> pendingIndexes, List<OrderBatchResult> results) {
+		entityManager.flush();
+		for (int i = 0; i < pending.size(); i++) {
+			results.add(OrderBatchResult.created(pendingIndexes.get(i), pending.get(i).getId()));
 		}
-		if (patch.getDeliveryCity() != null) {
-			order.setDeliveryCity(patch.getDeliveryCity());
+		entityManager.clear();
+		pending.clear();
+		pendingIndexes.clear();
+	}
+
+	/* an order of a batch, or the reason it couldn’t be read */
+	private static class BatchItem {
+
+		private final Order order;
+
+		private final List<String> errors;
+
+		private BatchItem(Order order, List<String> errors) {
+			this.order = order;
+			this.errors = errors;
 		}
-		if (patch.getDeliveryState() != null) {
-			order.setDeliveryState(patch.getDeliveryState());
+
+		private static BatchItem of(Order order) {
+			return new BatchItem(order, null);
 		}
-		if (patch.getDeliveryZip() != null) {
-			order.setDeliveryZip(patch.getDeliveryState());
+
+		private static BatchItem unreadable(String error) {
+			return new BatchItem(null, Collections.singletonList(error));
 		}
-		if (patch.getCcNumber() != null) {
-			order.setCcNumber(patch.getCcNumber());
+
+	}
+
+	/* the orders of an NDJSON body, read a line at a time while the batch is saved; the blank lines are skipped, but still counted */
+	private class NdjsonItems implements Iterator<BatchItem> {
+
+		private final BufferedReader lines;
+
+		private int lineNumber;
+
+		private String line;
+
+		private NdjsonItems(BufferedReader lines) {
+			this.lines = lines;
 		}
-		if (patch.getCcExpiration() != null) {
-			order.setCcExpiration(patch.getCcExpiration());
+
+		@Override
+		public boolean hasNext() {
+			try {
+				while (line == null) {
+					String read = lines.readLine();
+					if (read == null) {
+						return false;
+					}
+					lineNumber++;
+					if (!read.trim().isEmpty()) {
+						line = read;
+					}
+				}
+				return true;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
 		}
-		if (patch.getCcCVV() != null) {
-			order.setCcCVV(patch.getCcCVV());
+
+		@Override
+		public BatchItem next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			String current = line;
+			line = null;
+			try {
+				return BatchItem.of(orderReader.readValue(current));
+			} catch (JsonProcessingException e) {
+				return BatchItem.unreadable("line " + lineNumber + ": " + e.getOriginalMessage());
+			}
 		}
+
+	}
+
+	/*
+	 * PUT is the semantic opposite of GET. Whereas GET requests are for transferring data from the server to the client, PUT requests are for sending
+	 * data from the client to the server.
+	 */
+	@PutMapping(path = "/{orderId}", consumes = { "application/json", "application/cbor", "application/x-jackson-smile" })
+	public Order putOrder(@RequestBody Order order) {
 		return repo.save(order);
 	}
 
+	/*
+	 * Whereas PUT is really intended to perform a 'wholesale replacement' operation rather than an 'update' operation. In contrast, the purpose of
+	 * HTTP PATCH is to perform a patch or partial update of resource data.
+	 *
+	 * The patch is a JSON Merge Patch (RFC 7396): each member of the patch replaces the property of the same name, and a null member clears it. Only
+	 * the delivery and payment details of an order can be patched. The patched properties, and only them, are written with a single UPDATE statement,
+	 * without loading the order first (see OrderRepositoryImpl), so an address correction costs one statement. The response is a 204 (NO CONTENT),
+	 * since reading the order back would cost another one. The errors follow RFC 5789:
+	 *
+	 * 400 (BAD REQUEST) if the patch isn’t a JSON object, or has a member that isn’t a property of an order;
+	 *
+	 * 404 (NOT FOUND) if there is no such order;
+	 *
+	 * 409 (CONFLICT) if the patch changes a property that can’t be patched (the id, placement date, user or tacos of the order);
+	 *
+	 * 422 (UNPROCESSABLE ENTITY) if a patched value isn’t a string, or fails the validation of its property (clearing a delivery detail, for example).
+	 */
+	@PatchMapping(path = "/{orderId}", consumes = { "application/merge-patch+json", "application/json" })
+	public ResponseEntity<List<String>> patchOrder(@PathVariable("orderId") Long orderId, @RequestBody JsonNode patch) {
+		if (!patch.isObject()) {
+			return new ResponseEntity<>(Collections.singletonList("The patch must be a JSON object"), HttpStatus.BAD_REQUEST);
+		}
+
+		List<String> unknown = new ArrayList<>();
+		List<String> readOnly = new ArrayList<>();
+		patch.fieldNames().forEachRemaining(name -> {
+			if (READ_ONLY_PROPERTIES.contains(name)) {
+				/* restating the id of the order changes nothing */
+				if (!(name.equals("id") && patch.get(name).canConvertToLong() && patch.get(name).asLong() == orderId)) {
+					readOnly.add(name + ": can't be patched");
+				}
+			} else if (!PATCHABLE_PROPERTIES.contains(name)) {
+				unknown.add(name + ": not a property of an order");
+			}
+		});
+		if (!unknown.isEmpty()) {
+			return new ResponseEntity<>(unknown, HttpStatus.BAD_REQUEST);
+		}
+		if (!readOnly.isEmpty()) {
+			return new ResponseEntity<>(readOnly, HttpStatus.CONFLICT);
+		}
+
+		/* in the order of PATCHABLE_PROPERTIES, so that the same properties always give the same statement */
+		Map<String, Object> changes = new LinkedHashMap<>();
+		List<String> invalid = new ArrayList<>();
+		for (String property : PATCHABLE_PROPERTIES) {
+			JsonNode value = patch.get(property);
+			if (value == null) {
+				continue;
+			}
+			if (!value.isNull() && !value.isTextual()) {
+				invalid.add(property + ": must be a string");
+				continue;
+			}
+			String text = value.isNull() ? null : value.textValue();
+			validator.validateValue(Order.class, property, text).forEach(v -> invalid.add(property + ": " + v.getMessage()));
+			changes.put(property, text);
+		}
+		if (!invalid.isEmpty()) {
+			return new ResponseEntity<>(invalid, HttpStatus.UNPROCESSABLE_ENTITY);
+		}
+
+		boolean found = changes.isEmpty() ? repo.existsById(orderId) : repo.updateProperties(orderId, changes) > 0;
+		return new ResponseEntity<>(found ? HttpStatus.NO_CONTENT : HttpStatus.NOT_FOUND);
+	}
+
 	/**
 	 * The @ResponseStatus annotation is to ensure that the response’s HTTP status is 204 (NO CONTENT). There’s no need to communicate any resource
 	 * data back to the client for a resource that no longer exists, so responses to DELETE requests typically have no body and therefore should
@@ -0,0 +1,97 @@
+package tacos.web.api;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Getter;
+import tacos.data.OrderHistoryEntry;
+import tacos.data.OrderTacoName;
+
+/**
+ * A page of the order history of a user (GET /orders/mine), newest first: for each order, when it was placed, where it was delivered, and the ids and
+ * names of its tacos, which is all the "reorder" feature needs. Unlike OrderSummary, it has neither the credit card details nor the ingredients.
+ *
+ * The next property is the URL of the following page, and is left out of the last page.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderHistory {
+
+	private final List<PastOrder> orders;
+
+	private final String next;
+
+	private OrderHistory(List<PastOrder> orders, String next) {
+		this.orders = orders;
+		this.next = next;
+	}
+
+	/* the taco names are in the order of their order id (see OrderRepository.findTacoNames()), so they’re simply appended to their order */
+	public static OrderHistory of(List<OrderHistoryEntry> entries, List<OrderTacoName> tacoNames, String next) {
+		List<PastOrder> orders = new ArrayList<>(entries.size());
+		Map<Long, PastOrder> byId = new HashMap<>();
+		for (OrderHistoryEntry entry : entries) {
+			PastOrder order = new PastOrder(entry);
+			orders.add(order);
+			byId.put(order.id, order);
+		}
+		for (OrderTacoName tacoName : tacoNames) {
+			PastOrder order = byId.get(tacoName.getOrderId());
+			if (order != null) {
+				order.tacos.add(new PastTaco(tacoName.getTacoId(), tacoName.getTacoName()));
+			}
+		}
+		return new OrderHistory(orders, next);
+	}
+
+	@Getter
+	public static class PastOrder {
+
+		private final Long id;
+
+		private final Date placedAt;
+
+		private final String deliveryName;
+
+		private final String deliveryStreet;
+
+		private final String deliveryCity;
+
+		private final String deliveryState;
+
+		private final String deliveryZip;
+
+		private final List<PastTaco> tacos = new ArrayList<>();
+
+		private PastOrder(OrderHistoryEntry entry) {
+			this.id = entry.getId();
+			this.placedAt = entry.getPlacedAt();
+			this.deliveryName = entry.getDeliveryName();
+			this.deliveryStreet = entry.getDeliveryStreet();
+			this.deliveryCity = entry.getDeliveryCity();
+			this.deliveryState = entry.getDeliveryState();
+			this.deliveryZip = entry.getDeliveryZip();
+		}
+
+	}
+
+	@Getter
+	public static class PastTaco {
+
+		private final Long id;
+
+		private final String name;
+
+		private PastTaco(Long id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+
+	}
+
+}
@@ -0,0 +1,116 @@
+package tacos.web.api;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import lombok.Getter;
+import tacos.Ingredient;
+import tacos.User;
+import tacos.data.IngredientCatalog;
+import tacos.data.OrderRow;
+
+/**
+ * An order of the GET /orders listing, rendered from the flat rows of OrderRepository.findRows() rather than from Order entities. It has the same
+ * properties as the JSON of an Order: its user is a User built from the columns of the row, which is never attached to a persistence context.
+ */
+@Getter
+public class OrderSummary {
+
+	private final Long id;
+
+	private final Date placedAt;
+
+	private final User user;
+
+	private final String deliveryName;
+
+	private final String deliveryStreet;
+
+	private final String deliveryCity;
+
+	private final String deliveryState;
+
+	private final String deliveryZip;
+
+	private final String ccNumber;
+
+	private final String ccExpiration;
+
+	private final String ccCVV;
+
+	private final List<OrderedTaco> tacos = new ArrayList<>();
+
+	private OrderSummary(OrderRow row) {
+		this.id = row.getId();
+		this.placedAt = row.getPlacedAt();
+		this.user = row.getUserId() == null ? null : userOf(row);
+		this.deliveryName = row.getDeliveryName();
+		this.deliveryStreet = row.getDeliveryStreet();
+		this.deliveryCity = row.getDeliveryCity();
+		this.deliveryState = row.getDeliveryState();
+		this.deliveryZip = row.getDeliveryZip();
+		this.ccNumber = row.getCcNumber();
+		this.ccExpiration = row.getCcExpiration();
+		this.ccCVV = row.getCcCVV();
+	}
+
+	private static User userOf(OrderRow row) {
+		User user = new User(row.getUsername(), row.getPassword(), row.getFullname(), row.getStreet(), row.getCity(), row.getState(), row.getZip(),
+				row.getPhoneNumber());
+		user.setId(row.getUserId());
+		return user;
+	}
+
+	/*
+	 * The rows of an order are consecutive, and so are the rows of each position in its list of tacos (see OrderRepository.findRows()), so a single
+	 * pass folds them back into orders, each with its tacos, each with its ingredients. The tacos are told apart by their position rather than their
+	 * id, since an order can list the same taco twice.
+	 */
+	public static List<OrderSummary> of(List<OrderRow> rows, IngredientCatalog ingredientCatalog) {
+		List<OrderSummary> orders = new ArrayList<>();
+		OrderSummary order = null;
+		OrderedTaco taco = null;
+		Integer position = null;
+		for (OrderRow row : rows) {
+			if (order == null || !order.id.equals(row.getId())) {
+				order = new OrderSummary(row);
+				orders.add(order);
+				taco = null;
+				position = null;
+			}
+			if (row.getTacoId() == null) {
+				continue;
+			}
+			if (taco == null || !position.equals(row.getTacoPosition())) {
+				taco = new OrderedTaco(row.getTacoId(), row.getTacoName(), row.getTacoCreatedAt());
+				position = row.getTacoPosition();
+				order.tacos.add(taco);
+			}
+			if (row.getIngredientId() != null) {
+				ingredientCatalog.findById(row.getIngredientId()).ifPresent(taco.ingredients::add);
+			}
+		}
+		return orders;
+	}
+
+	@Getter
+	public static class OrderedTaco {
+
+		private final Long id;
+
+		private final String name;
+
+		private final Date createdAt;
+
+		private final List<Ingredient> ingredients = new ArrayList<>();
+
+		private OrderedTaco(Long id, String name, Date createdAt) {
+			this.id = id;
+			this.name = name;
+			this.createdAt = createdAt;
+		}
+
+	}
+
+}
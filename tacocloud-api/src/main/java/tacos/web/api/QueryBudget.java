@@ -0,0 +1,19 @@
+package tacos.web.api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the maximum number of SQL statements a handler method is expected to issue for one request. QueryBudgetTest calls every budgeted
+ * end-point and fails when Hibernate prepared more statements than its budget, which is how an N+1 loading regression shows up before it reaches
+ * production traffic. With tacocloud.query-budget.log, QueryBudgetInterceptor also checks the live requests and logs the handlers over budget.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+	int value();
+
+}
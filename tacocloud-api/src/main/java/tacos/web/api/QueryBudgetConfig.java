@@ -0,0 +1,30 @@
+package tacos.web.api;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/*
+ * Wires the logging of the SQL statement budget of the API end-points, when tacocloud.query-budget.log is true: the StatementCounter is handed to
+ * Hibernate as its statement inspector, and the QueryBudgetInterceptor checks the count of every request against the @QueryBudget of its handler
+ * method. It is off by default, so that neither of them is on the path of a request; the budgets are enforced by QueryBudgetTest.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tacocloud.query-budget.log", havingValue = "true")
+public class QueryBudgetConfig implements WebMvcConfigurer {
+
+	@Bean
+	public HibernatePropertiesCustomizer statementCounterCustomizer() {
+		return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new QueryBudgetInterceptor());
+	}
+
+}
@@ -0,0 +1,40 @@
+package tacos.web.api;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Checks the number of SQL statements of each request against the @QueryBudget of its handler method. The count is reset when the request enters
+ * the handler and read once the response has been written, so the statements fired by lazy loading while Jackson serializes the entities (with the
+ * default open-in-view) are counted as well.
+ *
+ * The response is already committed at that point, so a handler over its budget can’t change it anymore; it is reported in the log as a warning.
+ * It is only registered with tacocloud.query-budget.log (see QueryBudgetConfig).
+ */
+@Slf4j
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		StatementCounter.reset();
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		if (!(handler instanceof HandlerMethod)) {
+			return;
+		}
+		QueryBudget budget = ((HandlerMethod) handler).getMethodAnnotation(QueryBudget.class);
+		int statements = StatementCounter.get();
+		if (budget != null && statements > budget.value()) {
+			log.warn("{} {} issued {} SQL statements, its budget is {}", request.getMethod(), request.getRequestURI(), statements, budget.value());
+		}
+	}
+
+}
@@ -1,19 +1,31 @@
 package tacos.web.api;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.data.rest.webmvc.support.RepositoryEntityLinks;
 import org.springframework.hateoas.CollectionModel;
-import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.server.LinkBuilder;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
+import tacos.Ingredient;
 import tacos.Taco;
+import tacos.data.IngredientCatalog;
+import tacos.data.RecentTacos;
+import tacos.data.TacoIngredientId;
 import tacos.data.TacoRepository;
+import tacos.data.TacoSummary;
 
 /**
  * The REST end-point provided by Spring Data REST for replacing the DesignTacoController doesn’t have recentTacos() method. So we need to create this
@@ -28,27 +40,94 @@ import tacos.data.TacoRepository;
 @RepositoryRestController
 public class RecentTacosController {
 
+	private static final int PAGE_SIZE = RecentTacos.SIZE;
+
 	private TacoRepository tacoRepo;
+	private RecentTacos recentTacos;
+	private IngredientCatalog ingredientCatalog;
+	private RepresentationCache representations;
+	private RepositoryEntityLinks entityLinks;
 
 	@Autowired
-	public RecentTacosController(TacoRepository tacoRepo) {
+	public RecentTacosController(TacoRepository tacoRepo, RecentTacos recentTacos, IngredientCatalog ingredientCatalog,
+			RepresentationCache representations, RepositoryEntityLinks entityLinks) {
 		this.tacoRepo = tacoRepo;
+		this.recentTacos = recentTacos;
+		this.ingredientCatalog = ingredientCatalog;
+		this.representations = representations;
+		this.entityLinks = entityLinks;
 	}
 
 	/**
 	 * Even though @GetMapping is mapped to the path /tacos/recent, the @RepositoryRestController annotation at the class level will ensure that it
 	 * will be prefixed with Spring Data REST’s base path. As you’ve configured it (in application.yml), the recentTacos() method will handle GET
 	 * requests for /api/tacos/recent.
+	 *
+	 * The recent tacos are paged with a keyset cursor instead of page numbers: the first page is requested without a cursor, and every full page
+	 * carries a 'next' link whose cursor points right after its last taco. Following it seeks through the (created_at, id) index, so the latency
+	 * stays flat however deep the client pages, and no count query is issued. The first page, which is by far the most requested, is served from
+	 * RecentTacos without any query, and isn’t even serialized for each request: the RepresentationCache keeps its body, serialized and compressed,
+	 * for every version of RecentTacos, and answers the conditional GETs (see IngredientController). The version must be read before the tacos: a
+	 * taco saved in between then gets an entry that is already outdated, never the other way around.
+	 *
+	 * The following pages are read as flat projections (see TacoSummary and TacoIngredientId) rather than entities, and rendered straight from them,
+	 * with the ingredients taken from the IngredientCatalog.
 	 */
-	@GetMapping(path = "/tacos/recent", produces = "application/hal+json")
-	public ResponseEntity<CollectionModel<TacoRepresentation>> recentTacos() {
-		PageRequest page = PageRequest.of(0, 12, Sort.by("createdAt").descending());
-		List<Taco> tacos = tacoRepo.findAll(page).getContent();
+	@GetMapping(path = "/tacos/recent", produces = { "application/hal+json", "application/cbor", "application/x-jackson-smile" })
+	@QueryBudget(2) // the page of tacos, plus one batch for their ingredients
+	public ResponseEntity<?> recentTacos(@RequestParam(name = "cursor", required = false) String cursor, WebRequest request) {
+		if (cursor == null) {
+			return representations.respond("recent-tacos", recentTacos.getVersion(), RepresentationCache.HAL_FORMATS, request, this::firstPage);
+		}
+
+		KeysetCursor after = KeysetCursor.decode(cursor);
+		if (after == null) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+		List<TacoSummary> tacos = tacoRepo.findRecentSummariesBefore(after.getDate(), after.getId(), PageRequest.of(0, PAGE_SIZE));
+		KeysetCursor last = null;
+		if (tacos.size() == PAGE_SIZE) {
+			TacoSummary lastTaco = tacos.get(PAGE_SIZE - 1);
+			last = KeysetCursor.of(lastTaco.getCreatedAt(), lastTaco.getId());
+		}
+		return new ResponseEntity<>(withLinks(new TacoRepresentationAssembler().toCollectionModel(tacos, ingredientsOf(tacos)), last), HttpStatus.OK);
+	}
 
-		CollectionModel<TacoRepresentation> recentsRepresentation = new TacoRepresentationAssembler().toCollectionModel(tacos);
+	private CollectionModel<TacoRepresentation> firstPage() {
+		List<Taco> tacos = recentTacos.getTacos();
+		KeysetCursor last = null;
+		if (tacos.size() == PAGE_SIZE) {
+			Taco lastTaco = tacos.get(PAGE_SIZE - 1);
+			last = KeysetCursor.of(lastTaco.getCreatedAt(), lastTaco.getId());
+		}
+		return withLinks(new TacoRepresentationAssembler().toCollectionModel(tacos), last);
+	}
+
+	/*
+	 * The links are built from the exported TacoRepository rather than with WebMvcLinkBuilder, which doesn’t know the base path of Spring Data REST
+	 * and would leave the /api out of them.
+	 */
+	private CollectionModel<TacoRepresentation> withLinks(CollectionModel<TacoRepresentation> recentsRepresentation, KeysetCursor last) {
+		LinkBuilder recents = entityLinks.linkFor(Taco.class).slash("recent");
+		recentsRepresentation.add(recents.withRel("recents"));
+		if (last != null) {
+			recentsRepresentation.add(Link.of(recents.toUri().toString() + "?cursor=" + last.encode(), "next"));
+		}
+		return recentsRepresentation;
+	}
 
-		recentsRepresentation.add(WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(RecentTacosController.class).recentTacos()).withRel("recents"));
-		return new ResponseEntity<>(recentsRepresentation, HttpStatus.OK);
+	/* the ingredients of the given tacos, keyed by the id of the taco; an ingredient deleted since is left out */
+	private Map<Long, List<Ingredient>> ingredientsOf(List<TacoSummary> tacos) {
+		Map<Long, List<Ingredient>> ingredients = new HashMap<>();
+		if (tacos.isEmpty()) {
+			return ingredients;
+		}
+		List<Long> tacoIds = tacos.stream().map(TacoSummary::getId).collect(Collectors.toList());
+		for (TacoIngredientId row : tacoRepo.findIngredientIds(tacoIds)) {
+			ingredientCatalog.findById(row.getIngredientId())
+					.ifPresent(ingredient -> ingredients.computeIfAbsent(row.getTacoId(), id -> new ArrayList<>()).add(ingredient));
+		}
+		return ingredients;
 	}
 
 }
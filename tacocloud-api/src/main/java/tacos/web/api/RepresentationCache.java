@@ -0,0 +1,256 @@
+package tacos.web.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.Zstd;
+
+/**
+ * The read-mostly end-points (the ingredient catalog and the recent tacos) return the very same bytes to every caller until the next write. Rather
+ * than serializing (and, behind a compressing proxy, compressing) them again for every request, RepresentationCache keeps the serialized body of
+ * each representation, in each media type, along with its gzip and zstd encodings, compressed once. A request whose Accept and Accept-Encoding
+ * headers match a cached entry gets those bytes as they are: no Jackson, no compression. The entry is built on the request thread of the first
+ * request after a write, so zstd runs at a fast level (3) rather than at its highest, whose ratio isn’t worth ten times the time.
+ *
+ * An entry is keyed by the name of the representation (the same name as its ETag), its media type, and the base URL of the request, since the HAL
+ * representations carry absolute links. The base URL comes from the Host and X-Forwarded-* headers, which the client chooses, so only the base URLs
+ * of tacocloud.api.base-urls are cached; without any, the first MAX_BASE_URLS base URLs seen are. The requests made with any other base URL are
+ * served without the cache, and their bodies aren’t compressed, so that they can neither fill the cache nor evict the entries of the others.
+ *
+ * An entry holds the version of the data it was built from (see IngredientCatalog and RecentTacos): a request
+ * that comes with a newer version rebuilds it, so an entry is never served once the data changed, even when the write didn’t go through a
+ * controller. The controllers also invalidate() the entries of the data they write, so that their memory is released right away.
+ *
+ * Each encoding is kept only if it is smaller than the body itself, which isn’t the case of the small payloads (a single ingredient in CBOR, for
+ * example). Brotli isn’t offered: the JDK has no encoder for it, and the Java ports are native libraries as well, for a ratio close to zstd’s.
+ *
+ * The ETag is a hash of the serialized body, computed once per entry (see ETags), so every instance tags the same data alike. It differs for every
+ * media type and encoding, since each of them is a representation of its own, and the responses vary on both Accept and Accept-Encoding.
+ */
+@Component
+public class RepresentationCache {
+
+	static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+	/* the media types of the end-points, in their order of preference (that of their 'produces' attribute) */
+	static final List<MediaType> JSON_FORMATS = Collections
+			.unmodifiableList(Arrays.asList(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE));
+	static final List<MediaType> HAL_FORMATS = Collections
+			.unmodifiableList(Arrays.asList(MediaType.parseMediaType("application/hal+json"), MediaType.APPLICATION_CBOR, APPLICATION_SMILE));
+
+	/* zstd is preferred over gzip when a client accepts both: it decompresses faster, and the body is smaller */
+	private static final String ZSTD = "zstd";
+	private static final String GZIP = "gzip";
+
+	private static final int ZSTD_LEVEL = 3;
+
+	/* the number of base URLs cached when none is configured: enough for localhost and a couple of host names */
+	static final int MAX_BASE_URLS = 8;
+
+	private final Map<MediaType, ObjectMapper> mappers = new ConcurrentHashMap<>();
+
+	private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+	private final Set<String> configuredBaseUrls = new HashSet<>();
+
+	private final Set<String> seenBaseUrls = ConcurrentHashMap.newKeySet();
+
+	public RepresentationCache(ObjectMapper objectMapper, MappingJackson2CborHttpMessageConverter cborConverter,
+			MappingJackson2SmileHttpMessageConverter smileConverter, @Value("${tacocloud.api.base-urls:}") String[] baseUrls) {
+		for (String baseUrl : baseUrls) {
+			if (StringUtils.hasText(baseUrl)) {
+				configuredBaseUrls.add(StringUtils.trimTrailingCharacter(baseUrl.trim(), '/'));
+			}
+		}
+		mappers.put(MediaType.APPLICATION_JSON, objectMapper);
+		mappers.put(HAL_FORMATS.get(0), BinaryFormatsConfig.withHal(objectMapper.copy()));
+		mappers.put(MediaType.APPLICATION_CBOR, cborConverter.getObjectMapper());
+		mappers.put(APPLICATION_SMILE, smileConverter.getObjectMapper());
+	}
+
+	/*
+	 * Answers a GET for the given representation, whose data is at the given version. The body is only called when the entry is missing or
+	 * outdated; it returns null when there is nothing to represent, which is answered with a 404 (NOT FOUND) and isn’t cached. Like the end-points
+	 * did before, a request whose If-None-Match still matches is answered with a 304 (NOT MODIFIED), and null is returned.
+	 */
+	public ResponseEntity<byte[]> respond(String representation, long version, List<MediaType> formats, WebRequest request, Supplier<?> body) {
+		MediaType mediaType = negotiate(request, formats);
+
+		String baseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
+		boolean cached = isCached(baseUrl);
+		Key key = new Key(representation, mediaType, baseUrl);
+		Entry entry = cached ? entries.get(key) : null;
+		if (entry == null || entry.version != version) {
+			Object value = body.get();
+			if (value == null) {
+				return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+			}
+			entry = new Entry(version, serialize(value, mediaType), cached);
+			if (cached) {
+				entries.put(key, entry);
+			}
+		}
+
+		String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+		String encoding = null;
+		byte[] bytes = entry.identity;
+		if (entry.zstd != null && accepts(acceptEncoding, ZSTD)) {
+			encoding = ZSTD;
+			bytes = entry.zstd;
+		} else if (entry.gzip != null && accepts(acceptEncoding, GZIP)) {
+			encoding = GZIP;
+			bytes = entry.gzip;
+		}
+
+		String tag = representation + "-" + mediaType.getSubtype().replace('+', '-') + (encoding == null ? "" : "-" + encoding);
+		if (request.checkNotModified(ETags.of(tag, entry.hash))) {
+			return null;
+		}
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(mediaType);
+		headers.setVary(Arrays.asList(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+		if (encoding != null) {
+			headers.set(HttpHeaders.CONTENT_ENCODING, encoding);
+		}
+		return new ResponseEntity<>(bytes, headers, HttpStatus.OK);
+	}
+
+	/* drops every entry whose representation starts with the given name, in all its media types */
+	public void invalidate(String representation) {
+		entries.keySet().removeIf(key -> key.getRepresentation().startsWith(representation));
+	}
+
+	/* whether the entries of the given base URL are cached: it is configured, or there is none and it is one of the first MAX_BASE_URLS seen */
+	private boolean isCached(String baseUrl) {
+		if (!configuredBaseUrls.isEmpty()) {
+			return configuredBaseUrls.contains(baseUrl);
+		}
+		if (seenBaseUrls.contains(baseUrl)) {
+			return true;
+		}
+		synchronized (seenBaseUrls) {
+			if (seenBaseUrls.size() < MAX_BASE_URLS) {
+				seenBaseUrls.add(baseUrl);
+			}
+			return seenBaseUrls.contains(baseUrl);
+		}
+	}
+
+	/* the first of the given formats that matches the most preferred media type of the Accept header (all of them if there is none) */
+	private static MediaType negotiate(WebRequest request, List<MediaType> formats) {
+		String accept = request.getHeader(HttpHeaders.ACCEPT);
+		List<MediaType> acceptable = StringUtils.hasText(accept) ? MediaType.parseMediaTypes(accept) : Collections.singletonList(MediaType.ALL);
+		MediaType.sortBySpecificityAndQuality(acceptable);
+		for (MediaType candidate : acceptable) {
+			for (MediaType format : formats) {
+				if (candidate.isCompatibleWith(format) && candidate.getQualityValue() > 0) {
+					return format;
+				}
+			}
+		}
+		/* the 'produces' attribute of the end-point already turned down the requests that accept none of them */
+		return formats.get(0);
+	}
+
+	/* whether the Accept-Encoding header has the given coding, or '*', with a quality other than zero */
+	private static boolean accepts(String acceptEncoding, String coding) {
+		if (!StringUtils.hasText(acceptEncoding)) {
+			return false;
+		}
+		for (String accepted : acceptEncoding.split(",")) {
+			String[] parts = accepted.trim().split(";");
+			String name = parts[0].trim();
+			if ((name.equalsIgnoreCase(coding) || name.equals("*")) && !(parts.length > 1 && parts[1].trim().matches("q\\s*=\\s*0(\\.0*)?"))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private byte[] serialize(Object value, MediaType mediaType) {
+		try {
+			return mappers.get(mediaType).writeValueAsBytes(value);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Can't serialize the " + mediaType + " representation of " + value, e);
+		}
+	}
+
+	private static byte[] gzip(byte[] bytes) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+			{
+				def.setLevel(Deflater.BEST_COMPRESSION);
+			}
+		}) {
+			gzip.write(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out.toByteArray();
+	}
+
+	/* an encoding that doesn’t make the body smaller isn’t worth the decompression */
+	private static byte[] smallerOrNull(byte[] encoded, byte[] identity) {
+		return encoded.length < identity.length ? encoded : null;
+	}
+
+	private static class Entry {
+
+		private final long version;
+
+		private final byte[] identity;
+
+		private final byte[] gzip;
+
+		private final byte[] zstd;
+
+		private final String hash;
+
+		/* an entry that isn’t cached is only used once, which isn’t worth compressing it */
+		private Entry(long version, byte[] identity, boolean compressed) {
+			this.version = version;
+			this.identity = identity;
+			this.hash = ETags.hash(identity);
+			this.gzip = compressed ? smallerOrNull(RepresentationCache.gzip(identity), identity) : null;
+			this.zstd = compressed ? smallerOrNull(Zstd.compress(identity, ZSTD_LEVEL), identity) : null;
+		}
+
+	}
+
+	@lombok.Value
+	private static class Key {
+
+		String representation;
+
+		MediaType mediaType;
+
+		String baseUrl;
+
+	}
+
+}
@@ -0,0 +1,30 @@
+package tacos.web.api;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate hands every SQL statement to the StatementInspector before preparing it. This one leaves the SQL untouched and only counts the statements
+ * issued by the current thread, which, with one thread per request, is the number of statements issued by the current request. Hibernate’s own
+ * Statistics are shared by the whole SessionFactory, so they can’t tell apart the statements of two requests handled at the same time.
+ */
+public class StatementCounter implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final ThreadLocal<int[]> count = ThreadLocal.withInitial(() -> new int[1]);
+
+	@Override
+	public String inspect(String sql) {
+		count.get()[0]++;
+		return sql;
+	}
+
+	public static void reset() {
+		count.get()[0] = 0;
+	}
+
+	public static int get() {
+		return count.get()[0];
+	}
+
+}
@@ -0,0 +1,44 @@
+package tacos.web.api;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.core.annotation.HandleAfterCreate;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.stereotype.Component;
+
+import tacos.Taco;
+import tacos.data.RecentTacos;
+
+/*
+ * similar to IngredientCatalogEventHandler: keeps RecentTacos up to date with the tacos written through the Spring Data REST end-points. A new taco
+ * is simply added, but an updated or deleted taco may be anywhere in the list, so the list is loaded again. The ETag of a new taco is computed
+ * right away, that of an updated or deleted one is forgotten (see TacoTags).
+ */
+@Component
+@RepositoryEventHandler(Taco.class)
+public class TacoEventHandler {
+
+	private RecentTacos recentTacos;
+	private TacoTags tacoTags;
+
+	@Autowired
+	public TacoEventHandler(RecentTacos recentTacos, TacoTags tacoTags) {
+		this.recentTacos = recentTacos;
+		this.tacoTags = tacoTags;
+	}
+
+	@HandleAfterCreate
+	public void addToRecentTacos(Taco taco) {
+		recentTacos.add(taco);
+		tacoTags.put(taco);
+	}
+
+	@HandleAfterSave
+	@HandleAfterDelete
+	public void reloadRecentTacos(Taco taco) {
+		recentTacos.reload();
+		tacoTags.evict(taco.getId());
+	}
+
+}
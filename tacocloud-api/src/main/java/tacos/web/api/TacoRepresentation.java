@@ -8,6 +8,7 @@ import org.springframework.hateoas.server.core.Relation;
 
 import lombok.Getter;
 import tacos.Taco;
+import tacos.data.TacoSummary;
 
 /**
  * You need to add links to the Taco model contained within the list. This class converts Taco objects to a new Taco representation model. The
@@ -38,9 +39,21 @@ public class TacoRepresentation extends RepresentationModel<TacoRepresentation>
 
 	/* TacoRepresentation has a single constructor that accepts a Taco and copies the pertinent properties from the Taco to its own properties */
 	public TacoRepresentation(Taco taco) {
+		this(taco, ingredientAssembler.toCollectionModel(taco.getIngredients()));
+	}
+
+	/* used by TacoRepresentationAssembler.toCollectionModel(), which builds the ingredient links of all the tacos from the same base URI */
+	public TacoRepresentation(Taco taco, CollectionModel<IngredientRepresentation> ingredients) {
+		this.name = taco.getName();
+		this.createdAt = taco.getCreatedAt();
+		this.ingredients = ingredients;
+	}
+
+	/* the recent tacos after the first page are read as projections (see TacoRepository.findRecentSummariesBefore()) */
+	public TacoRepresentation(TacoSummary taco, CollectionModel<IngredientRepresentation> ingredients) {
 		this.name = taco.getName();
 		this.createdAt = taco.getCreatedAt();
-		this.ingredients = ingredientAssembler.toCollectionModel(taco.getIngredients());
+		this.ingredients = ingredients;
 	}
 }
 
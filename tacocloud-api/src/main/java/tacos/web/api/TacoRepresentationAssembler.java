@@ -1,11 +1,23 @@
 package tacos.web.api;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.server.mvc.RepresentationModelAssemblerSupport;
+import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 
+import tacos.Ingredient;
 import tacos.Taco;
+import tacos.data.TacoSummary;
 
 public class TacoRepresentationAssembler extends RepresentationModelAssemblerSupport<Taco, TacoRepresentation> {
 
+	private static final IngredientRepresentationAssembler ingredientAssembler = new IngredientRepresentationAssembler();
+
 	/*
 	 * TacoRepresentationAssembler has a default constructor that informs the superclass (RepresentationModelAssemblerSupport) that it will be using
 	 * DesignTacoController to determine the base path for any URLs in links it creates when creating a TacoRepresentation.
@@ -35,4 +47,40 @@ public class TacoRepresentationAssembler extends RepresentationModelAssemblerSup
 		return createModelWithId(taco.getId(), taco);
 	}
 
+	/*
+	 * toCollectionModel() is what renders the recent tacos. Rather than calling toModel() for each taco (and createModelWithId() for each taco and
+	 * each of its ingredients), it resolves the base URIs of DesignTacoController and IngredientController once, from the current request, and fills
+	 * in the ids with plain string concatenation. The links are the same as the ones toModel() builds, at a fraction of the cost: resolving a base URI
+	 * means inspecting the controller’s mappings and the current request (and its X-Forwarded-* headers) through WebMvcLinkBuilder.
+	 */
+	@Override
+	public CollectionModel<TacoRepresentation> toCollectionModel(Iterable<? extends Taco> tacos) {
+		String tacosHref = WebMvcLinkBuilder.linkTo(DesignTacoController.class).toUri().toString();
+		String ingredientsHref = WebMvcLinkBuilder.linkTo(IngredientController.class).toUri().toString();
+
+		List<TacoRepresentation> representations = new ArrayList<>();
+		for (Taco taco : tacos) {
+			TacoRepresentation representation = new TacoRepresentation(taco,
+					ingredientAssembler.toCollectionModel(taco.getIngredients(), ingredientsHref));
+			representation.add(Link.of(tacosHref + "/" + taco.getId()));
+			representations.add(representation);
+		}
+		return CollectionModel.of(representations);
+	}
+
+	/* The same representation, rendered from TacoSummary projections and the ingredients of each taco, keyed by the id of the taco */
+	public CollectionModel<TacoRepresentation> toCollectionModel(List<? extends TacoSummary> tacos, Map<Long, List<Ingredient>> ingredients) {
+		String tacosHref = WebMvcLinkBuilder.linkTo(DesignTacoController.class).toUri().toString();
+		String ingredientsHref = WebMvcLinkBuilder.linkTo(IngredientController.class).toUri().toString();
+
+		List<TacoRepresentation> representations = new ArrayList<>(tacos.size());
+		for (TacoSummary taco : tacos) {
+			List<Ingredient> tacoIngredients = ingredients.getOrDefault(taco.getId(), Collections.emptyList());
+			TacoRepresentation representation = new TacoRepresentation(taco, ingredientAssembler.toCollectionModel(tacoIngredients, ingredientsHref));
+			representation.add(Link.of(tacosHref + "/" + taco.getId()));
+			representations.add(representation);
+		}
+		return CollectionModel.of(representations);
+	}
+
 }
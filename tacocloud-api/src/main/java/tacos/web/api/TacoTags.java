@@ -0,0 +1,103 @@
+package tacos.web.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import tacos.Ingredient;
+import tacos.Taco;
+import tacos.data.IngredientCatalog;
+
+/**
+ * The ETags of GET /design/{id}, kept by taco id so that a conditional GET whose If-None-Match still matches is answered with a 304 (NOT MODIFIED)
+ * before the taco is looked up. A tag is a hash of what the representation of the taco is made of (see ETags): its name, its creation date, and its
+ * ingredients as the IngredientCatalog knows them, so every instance computes the same tag for the same taco.
+ *
+ * The tag of a taco is computed when it is written through the application (see DesignTacoController and TacoEventHandler), or else the first time
+ * it is read. A taco updated or deleted through Spring Data REST is forgotten, and so are all of them when the catalog changes, since each tag
+ * depends on the ingredients: every entry remembers the version of the catalog it was computed with.
+ *
+ * The tags are kept in a LinkedHashMap in access order, bounded to tacocloud.api.taco-tags.max-size entries (the least recently used is dropped
+ * first, and then computed again on its next read).
+ */
+@Component
+public class TacoTags {
+
+	private IngredientCatalog catalog;
+
+	@Value("${tacocloud.api.taco-tags.max-size:10000}")
+	private int maxSize;
+
+	/* guarded by its own monitor, held for map operations only */
+	private final Map<Long, Entry> tags = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+			return size() > maxSize;
+		}
+	};
+
+	@Autowired
+	public TacoTags(IngredientCatalog catalog) {
+		this.catalog = catalog;
+	}
+
+	/* the tag of the taco with the given id, or null when it has to be computed from the taco */
+	public String get(Long id) {
+		long catalogVersion = catalog.getVersion();
+		synchronized (tags) {
+			Entry entry = tags.get(id);
+			if (entry != null && entry.catalogVersion != catalogVersion) {
+				tags.remove(id);
+				return null;
+			}
+			return entry == null ? null : entry.tag;
+		}
+	}
+
+	/* computes the tag of the given taco, which must have an id, and keeps it */
+	public String put(Taco taco) {
+		/* the version must be read before the ingredients: a catalog written in between then gives an entry that is already outdated */
+		long catalogVersion = catalog.getVersion();
+		String tag = ETags.of("taco-" + taco.getId(), ETags.hash(fingerprint(taco)));
+		synchronized (tags) {
+			tags.put(taco.getId(), new Entry(catalogVersion, tag));
+		}
+		return tag;
+	}
+
+	public void evict(Long id) {
+		synchronized (tags) {
+			tags.remove(id);
+		}
+	}
+
+	/* the ingredients are listed in the order the taco lists them, as the catalog knows them rather than as a client may have sent them */
+	private String fingerprint(Taco taco) {
+		StringBuilder fingerprint = new StringBuilder().append(taco.getName()).append('|')
+				.append(taco.getCreatedAt() == null ? "" : taco.getCreatedAt().getTime());
+		for (Ingredient ingredient : taco.getIngredients()) {
+			Ingredient known = catalog.findById(ingredient.getId()).orElse(ingredient);
+			fingerprint.append('|').append(known.getId()).append(':').append(known.getName()).append(':').append(known.getType());
+		}
+		return fingerprint.toString();
+	}
+
+	private static class Entry {
+
+		private final long catalogVersion;
+
+		private final String tag;
+
+		private Entry(long catalogVersion, String tag) {
+			this.catalogVersion = catalogVersion;
+			this.tag = tag;
+		}
+
+	}
+
+}
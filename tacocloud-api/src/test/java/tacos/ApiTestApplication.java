@@ -0,0 +1,12 @@
+package tacos;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/*
+ * tacocloud-api is a library of the tacos application, without an application class of its own. This one boots its controllers and the repositories
+ * of tacocloud-data for the tests, on an embedded H2 database.
+ */
+@SpringBootApplication
+public class ApiTestApplication {
+
+}
@@ -0,0 +1,118 @@
+package tacos.web.api;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import tacos.Ingredient;
+import tacos.Ingredient.Type;
+import tacos.Order;
+import tacos.Taco;
+import tacos.User;
+import tacos.data.IngredientCatalog;
+import tacos.data.IngredientRepository;
+import tacos.data.OrderRepository;
+import tacos.data.TacoRepository;
+import tacos.data.UserRepository;
+
+/*
+ * The order end-points that read or write many orders at once, against the embedded database. The security filters are left out.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+class OrderControllerTest {
+
+	private static final String ORDER = "{\"deliveryName\":\"Craig Walls\",\"deliveryStreet\":\"123 North Street\",\"deliveryCity\":\"Cross Roads\","
+			+ "\"deliveryState\":\"TX\",\"deliveryZip\":\"76227\",\"ccNumber\":\"4111111111111111\",\"ccExpiration\":\"12/30\",\"ccCVV\":\"123\"}";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private IngredientRepository ingredientRepo;
+
+	@Autowired
+	private TacoRepository tacoRepo;
+
+	@Autowired
+	private OrderRepository orderRepo;
+
+	@Autowired
+	private UserRepository userRepo;
+
+	@Autowired
+	private IngredientCatalog ingredientCatalog;
+
+	/* a taco listed twice is listed twice, in its place, and the order comes with its user */
+	@Test
+	void allOrdersKeepTheTacosInTheirPlace() throws Exception {
+		Ingredient tortilla = ingredientRepo.save(new Ingredient("COTO", "Corn Tortilla", Type.WRAP));
+		Ingredient carnitas = ingredientRepo.save(new Ingredient("CARN", "Carnitas", Type.PROTEIN));
+		ingredientCatalog.refresh();
+		Taco first = new Taco();
+		first.setName("Twice");
+		first.setIngredients(Arrays.asList(tortilla, carnitas));
+		first = tacoRepo.save(first);
+		Taco second = new Taco();
+		second.setName("Just once");
+		second.setIngredients(Arrays.asList(tortilla));
+		second = tacoRepo.save(second);
+
+		User user = userRepo.save(new User("tacolover", "aA@00000", "Craig Walls", "123 North Street", "Cross Roads", "TX", "76227", "1231231234"));
+		Order order = new Order();
+		order.setUser(user);
+		order.setDeliveryName("Craig Walls");
+		order.setDeliveryStreet("123 North Street");
+		order.setDeliveryCity("Cross Roads");
+		order.setDeliveryState("TX");
+		order.setDeliveryZip("76227");
+		order.setCcNumber("4111111111111111");
+		order.setCcExpiration("12/30");
+		order.setCcCVV("123");
+		order.addDesign(first);
+		order.addDesign(second);
+		order.addDesign(first);
+		order = orderRepo.save(order);
+
+		mvc.perform(get("/orders").param("after", String.valueOf(order.getId() - 1)).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].id").value(order.getId()))
+				.andExpect(jsonPath("$[0].user.username").value("tacolover"))
+				.andExpect(jsonPath("$[0].tacos", hasSize(3)))
+				.andExpect(jsonPath("$[0].tacos[0].name").value("Twice"))
+				.andExpect(jsonPath("$[0].tacos[0].ingredients", hasSize(2)))
+				.andExpect(jsonPath("$[0].tacos[1].name").value("Just once"))
+				.andExpect(jsonPath("$[0].tacos[2].name").value("Twice"))
+				.andExpect(jsonPath("$[0].tacos[2].ingredients", hasSize(2)));
+	}
+
+	/* the line of a malformed order is reported as such, and the orders around it are saved */
+	@Test
+	void postOrderStreamRejectsTheUnreadableLines() throws Exception {
+		String body = ORDER + "\n{\"deliveryName\": \n\n{\"tacos\":\"not a list\"}\n" + ORDER.replace("12/30", "13/30") + "\n" + ORDER + "\n";
+		mvc.perform(post("/orders/batch").contentType("application/x-ndjson").accept(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(5)))
+				.andExpect(jsonPath("$[0].status").value(201))
+				.andExpect(jsonPath("$[1].status").value(400))
+				.andExpect(jsonPath("$[1].errors[0]", startsWith("line 2: ")))
+				.andExpect(jsonPath("$[2].status").value(400))
+				.andExpect(jsonPath("$[2].errors[0]", startsWith("line 4: ")))
+				.andExpect(jsonPath("$[3].status").value(400))
+				.andExpect(jsonPath("$[3].errors[0]").value("ccExpiration: Must be formatted MM/YY"))
+				.andExpect(jsonPath("$[4].status").value(201));
+	}
+
+}
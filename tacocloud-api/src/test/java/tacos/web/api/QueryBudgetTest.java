@@ -0,0 +1,235 @@
+package tacos.web.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.method.HandlerMethod;
+
+import com.jayway.jsonpath.JsonPath;
+
+import tacos.Ingredient;
+import tacos.Ingredient.Type;
+import tacos.Order;
+import tacos.Taco;
+import tacos.User;
+import tacos.data.IngredientCatalog;
+import tacos.data.IngredientRepository;
+import tacos.data.OrderRepository;
+import tacos.data.RecentTacos;
+import tacos.data.TacoRepository;
+import tacos.data.UserRepository;
+
+/**
+ * Calls every end-point annotated with @QueryBudget and fails when Hibernate prepared more SQL statements for it than its budget, counted with the
+ * Statistics of the SessionFactory. The requests of a test run one at a time, so the statistics, which are shared by the whole SessionFactory, only
+ * count the statements of the request under test. The budget is read from the handler method that served the request, so a new budgeted end-point
+ * only needs a test calling it.
+ *
+ * The database holds more tacos and orders than a page of them, so that every paged end-point has a next page, and the lazy collections of a page
+ * are loaded in batches rather than all at once or one at a time. The batches are those of the @BatchSize of Order.tacos and Taco.ingredients, so
+ * the budgets hold with the mapping alone, whatever hibernate.default_batch_fetch_size the application sets. The security filters are left out: the
+ * authenticated user of /orders/mine is put in the SecurityContext directly.
+ */
+@SpringBootTest(properties = { "spring.data.rest.base-path=/api", "spring.jpa.properties.hibernate.generate_statistics=true" })
+@AutoConfigureMockMvc(addFilters = false)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTest {
+
+	private static final int TACO_COUNT = 30;
+
+	private static final int ORDER_COUNT = 45;
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private IngredientRepository ingredientRepo;
+
+	@Autowired
+	private TacoRepository tacoRepo;
+
+	@Autowired
+	private OrderRepository orderRepo;
+
+	@Autowired
+	private UserRepository userRepo;
+
+	@Autowired
+	private RecentTacos recentTacos;
+
+	@Autowired
+	private IngredientCatalog ingredientCatalog;
+
+	private Statistics statistics;
+
+	private User user;
+
+	private Taco taco;
+
+	@BeforeAll
+	void saveTacosAndOrders() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		List<Ingredient> ingredients = new ArrayList<>();
+		ingredientRepo.saveAll(Arrays.asList(new Ingredient("FLTO", "Flour Tortilla", Type.WRAP),
+				new Ingredient("GRBF", "Ground Beef", Type.PROTEIN), new Ingredient("TMTO", "Diced Tomatoes", Type.VEGGIES),
+				new Ingredient("CHED", "Cheddar", Type.CHEESE), new Ingredient("SLSA", "Salsa", Type.SAUCE))).forEach(ingredients::add);
+
+		List<Taco> tacos = new ArrayList<>();
+		for (int i = 0; i < TACO_COUNT; i++) {
+			Taco design = new Taco();
+			design.setName("Taco number " + i);
+			design.setIngredients(ingredients);
+			tacos.add(tacoRepo.save(design));
+		}
+		taco = tacos.get(0);
+
+		user = userRepo.save(new User("habuma00", "aA@00000", "Craig Walls", "123 North Street", "Cross Roads", "TX", "76227", "1231231234"));
+		for (int i = 0; i < ORDER_COUNT; i++) {
+			Order order = new Order();
+			order.setUser(user);
+			order.setDeliveryName("Craig Walls");
+			order.setDeliveryStreet("123 North Street");
+			order.setDeliveryCity("Cross Roads");
+			order.setDeliveryState("TX");
+			order.setDeliveryZip("76227");
+			order.setCcNumber("4111111111111111");
+			order.setCcExpiration("12/30");
+			order.setCcCVV("123");
+			for (int j = 0; j < 3; j++) {
+				order.addDesign(tacos.get((i + j) % TACO_COUNT));
+			}
+			orderRepo.save(order);
+		}
+
+		/* both were loaded when the application was ready, before the data was saved */
+		recentTacos.reload();
+		ingredientCatalog.refresh();
+	}
+
+	@BeforeEach
+	void clearStatistics() {
+		statistics.clear();
+	}
+
+	@AfterEach
+	void clearAuthentication() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void allIngredients() throws Exception {
+		assertWithinBudget(get("/ingredients").accept(MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	void ingredientById() throws Exception {
+		assertWithinBudget(get("/ingredients/{id}", "TMTO").accept(MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	void recentTacos() throws Exception {
+		MvcResult firstPage = assertWithinBudget(get("/api/tacos/recent").accept(MediaTypes.HAL_JSON));
+		String next = JsonPath.read(firstPage.getResponse().getContentAsString(), "$._links.next.href");
+		statistics.clear();
+		assertWithinBudget(get(URI.create(next)).accept(MediaTypes.HAL_JSON));
+	}
+
+	@Test
+	void recentDesigns() throws Exception {
+		assertWithinBudget(get("/design/recent").accept(MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	void tacoById() throws Exception {
+		assertWithinBudget(get("/design/{id}", taco.getId()).accept(MediaType.APPLICATION_JSON));
+	}
+
+	/* a matching If-None-Match is answered before the taco is looked up */
+	@Test
+	void tacoByIdNotModified() throws Exception {
+		String tag = mvc.perform(get("/design/{id}", taco.getId()).accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk()).andReturn()
+				.getResponse().getHeader(HttpHeaders.ETAG);
+		statistics.clear();
+		mvc.perform(get("/design/{id}", taco.getId()).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, tag))
+				.andExpect(status().isNotModified());
+		assertEquals(0, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void allOrders() throws Exception {
+		MvcResult firstPage = assertWithinBudget(get("/orders").accept(MediaType.APPLICATION_JSON));
+		String link = firstPage.getResponse().getHeader(HttpHeaders.LINK);
+		assertNotNull(link);
+		statistics.clear();
+		assertWithinBudget(get(URI.create(link.substring(1, link.indexOf('>')))).accept(MediaType.APPLICATION_JSON));
+	}
+
+	/*
+	 * The export has no fixed budget, since it reads the whole table: the orders come with their users in one query, and the tacos and ingredients
+	 * of a chunk of orders in batches of 25, each taco only once. Hibernate loads the remainder of a batch with up to two smaller statements (of the
+	 * sizes it prepared up front), hence the bound of two statements per batch rather than one per order.
+	 */
+	@Test
+	void streamOrders() throws Exception {
+		String body = mvc.perform(get("/orders").accept("application/x-ndjson")).andExpect(status().isOk()).andReturn().getResponse()
+				.getContentAsString();
+		assertEquals(ORDER_COUNT, body.split("\n").length);
+		long batches = (ORDER_COUNT + 24) / 25 + (TACO_COUNT + 24) / 25;
+		assertTrue(statistics.getPrepareStatementCount() <= 1 + 2 * batches,
+				() -> "the export prepared " + statistics.getPrepareStatementCount() + " SQL statements");
+	}
+
+	@Test
+	void myOrders() throws Exception {
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+		MvcResult firstPage = assertWithinBudget(get("/orders/mine").accept(MediaType.APPLICATION_JSON));
+		String next = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.next");
+		statistics.clear();
+		assertWithinBudget(get(URI.create(next)).accept(MediaType.APPLICATION_JSON));
+	}
+
+	/* performs the request, which must succeed, and checks the statements it prepared against the @QueryBudget of the handler that served it */
+	private MvcResult assertWithinBudget(MockHttpServletRequestBuilder request) throws Exception {
+		MvcResult result = mvc.perform(request).andExpect(status().isOk()).andReturn();
+		long statements = statistics.getPrepareStatementCount();
+		HandlerMethod handler = (HandlerMethod) result.getHandler();
+		QueryBudget budget = handler.getMethodAnnotation(QueryBudget.class);
+		assertNotNull(budget, () -> handler + " has no @QueryBudget");
+		assertTrue(statements <= budget.value(), () -> result.getRequest().getRequestURI() + " prepared " + statements
+				+ " SQL statements, its budget is " + budget.value());
+		return result;
+	}
+
+}
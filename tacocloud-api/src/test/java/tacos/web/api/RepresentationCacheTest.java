@@ -0,0 +1,77 @@
+package tacos.web.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * The same URL has a cached entry for every media type and encoding, so every response must tell the HTTP caches in between that it varies on both
+ * Accept and Accept-Encoding: a cache that only knew of Accept-Encoding would serve a CBOR body to the next client asking for JSON.
+ */
+class RepresentationCacheTest {
+
+	private static final List<String> INGREDIENTS = Arrays.asList("Flour Tortilla", "Ground Beef", "Diced Tomatoes", "Cheddar", "Salsa");
+
+	private final RepresentationCache cache = new RepresentationCache(new ObjectMapper(), new MappingJackson2CborHttpMessageConverter(),
+			new MappingJackson2SmileHttpMessageConverter(), new String[0]);
+
+	private MockHttpServletResponse servletResponse;
+
+	@AfterEach
+	void resetRequestAttributes() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void variesOnAcceptAndAcceptEncoding() {
+		for (String accept : Arrays.asList("application/json", "application/cbor", "application/x-jackson-smile")) {
+			ResponseEntity<byte[]> response = get(accept, "gzip");
+			assertEquals(MediaType.valueOf(accept), response.getHeaders().getContentType());
+			List<String> vary = response.getHeaders().getVary();
+			assertTrue(vary.contains(HttpHeaders.ACCEPT), () -> accept + " varies on " + vary);
+			assertTrue(vary.contains(HttpHeaders.ACCEPT_ENCODING), () -> accept + " varies on " + vary);
+		}
+	}
+
+	/* the ETag is set on the servlet response by checkNotModified() */
+	@Test
+	void keepsAnEntryPerMediaType() {
+		ResponseEntity<byte[]> json = get("application/json", "identity");
+		String jsonTag = servletResponse.getHeader(HttpHeaders.ETAG);
+		get("application/cbor", "identity");
+		assertNotEquals(jsonTag, servletResponse.getHeader(HttpHeaders.ETAG));
+		assertArrayEquals(json.getBody(), get("application/json", "identity").getBody());
+		assertEquals(jsonTag, servletResponse.getHeader(HttpHeaders.ETAG));
+	}
+
+	private ResponseEntity<byte[]> get(String accept, String acceptEncoding) {
+		servletResponse = new MockHttpServletResponse();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ingredients");
+		request.addHeader(HttpHeaders.ACCEPT, accept);
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+		return cache.respond("ingredients", 1, RepresentationCache.JSON_FORMATS, new ServletWebRequest(request, servletResponse),
+				() -> Collections.unmodifiableList(INGREDIENTS));
+	}
+
+}
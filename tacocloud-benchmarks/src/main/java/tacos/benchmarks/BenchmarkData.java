@@ -0,0 +1,79 @@
+package tacos.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import tacos.Ingredient;
+import tacos.Ingredient.Type;
+import tacos.Order;
+import tacos.Taco;
+
+/*
+ * The sample data the benchmarks work on: the ingredients of DevelopmentConfig, and tacos and orders shaped like the ones the API serves.
+ */
+final class BenchmarkData {
+
+	static final List<Ingredient> INGREDIENTS = Arrays.asList(
+			new Ingredient("COTO", "Corn Tortilla", Type.WRAP),
+			new Ingredient("FLTO", "Flour Tortilla", Type.WRAP),
+			new Ingredient("CARN", "Carnitas", Type.PROTEIN),
+			new Ingredient("GRBF", "Ground Beef", Type.PROTEIN),
+			new Ingredient("LETC", "Lettuce", Type.VEGGIES),
+			new Ingredient("TMTO", "Diced Tomatoes", Type.VEGGIES),
+			new Ingredient("CHED", "Cheddar", Type.CHEESE),
+			new Ingredient("JACK", "Monterrey Jack", Type.CHEESE),
+			new Ingredient("SLSA", "Salsa", Type.SAUCE),
+			new Ingredient("SRCR", "Sour Cream", Type.SAUCE));
+
+	private BenchmarkData() {
+	}
+
+	/* a taco with 5 of the ingredients, without an id, ready to be saved */
+	static Taco newTaco(int n) {
+		Taco taco = new Taco();
+		taco.setName("Taco number " + n);
+		List<Ingredient> ingredients = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			ingredients.add(INGREDIENTS.get((n + i) % INGREDIENTS.size()));
+		}
+		taco.setIngredients(ingredients);
+		return taco;
+	}
+
+	/* a taco as it is after being saved */
+	static Taco taco(long id) {
+		Taco taco = newTaco((int) id);
+		taco.setId(id);
+		taco.setCreatedAt(new Date());
+		return taco;
+	}
+
+	static List<Taco> tacos(int count) {
+		List<Taco> tacos = new ArrayList<>();
+		for (int i = 1; i <= count; i++) {
+			tacos.add(taco(i));
+		}
+		return tacos;
+	}
+
+	static Order order(long id, int tacoCount) {
+		Order order = new Order();
+		order.setId(id);
+		order.setPlacedAt(new Date());
+		order.setDeliveryName("Craig Walls");
+		order.setDeliveryStreet("123 North Street");
+		order.setDeliveryCity("Cross Roads");
+		order.setDeliveryState("TX");
+		order.setDeliveryZip("76227");
+		order.setCcNumber("4111111111111111");
+		order.setCcExpiration("10/29");
+		order.setCcCVV("123");
+		for (Taco taco : tacos(tacoCount)) {
+			order.addDesign(taco);
+		}
+		return order;
+	}
+
+}
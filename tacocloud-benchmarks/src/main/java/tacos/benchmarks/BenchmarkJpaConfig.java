@@ -0,0 +1,62 @@
+package tacos.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import tacos.Taco;
+import tacos.data.RecentTacos;
+import tacos.data.TacoRepository;
+
+/*
+ * A minimal application context for the benchmarks that go through the repositories: the entities and repositories of the application, Hibernate
+ * with the JPA settings of the tacos module’s application.yml, and a fresh in-memory H2 database for every context. There is no web server, the
+ * API’s controllers are left out.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EntityScan(basePackageClasses = Taco.class)
+@EnableJpaRepositories(basePackageClasses = TacoRepository.class)
+@Import(RecentTacos.class)
+public class BenchmarkJpaConfig {
+
+	static ConfigurableApplicationContext start(String... args) {
+		List<String> properties = new ArrayList<>(Arrays.asList(
+
+				"--spring.datasource.url=jdbc:h2:mem:benchmark-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+
+				"--spring.jpa.hibernate.ddl-auto=create-drop",
+
+				"--spring.jpa.properties.hibernate.default_batch_fetch_size=25",
+
+				"--spring.jpa.properties.hibernate.jdbc.batch_size=50",
+
+				"--spring.jpa.properties.hibernate.order_inserts=true",
+
+				"--spring.jmx.enabled=false",
+
+				"--logging.level.root=WARN"));
+		properties.addAll(Arrays.asList(args));
+
+		return new SpringApplicationBuilder(BenchmarkJpaConfig.class)
+
+				.web(WebApplicationType.NONE)
+
+				.bannerMode(Banner.Mode.OFF)
+
+				.logStartupInfo(false)
+
+				.run(properties.toArray(new String[0]));
+	}
+
+}
@@ -0,0 +1,32 @@
+package tacos.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The main class of target/benchmarks.jar. It runs the benchmarks like the JMH launcher does (and accepts the same command line options), but writes
+ * the results as JSON to jmh-result.json when no -rf is given, so that the results of two builds can be compared, for example with a JMH visualizer:
+ *
+ * java -jar tacocloud-benchmarks/target/benchmarks.jar
+ *
+ * java -jar tacocloud-benchmarks/target/benchmarks.jar RegistrationFormat -rff registration.json
+ */
+public class BenchmarkRunner {
+
+	/* an option set on the builder would override that of the command line, its parent: the default format is only set when -rf wasn't given */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+		if (!commandLine.getResultFormat().hasValue()) {
+			/* JMH names the file after the format, jmh-result.json, unless -rff names it */
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		new Runner(options.build()).run();
+	}
+
+}
@@ -0,0 +1,155 @@
+package tacos.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import tacos.Order;
+import tacos.Taco;
+import tacos.web.api.BinaryFormatsConfig;
+import tacos.web.api.TacoRepresentation;
+import tacos.web.api.TacoRepresentationAssembler;
+
+/*
+ * The three formats the API speaks (see BinaryFormatsConfig): JSON text, CBOR and Smile, for a Taco, an Order and the HAL representation of the
+ * recent tacos. The mappers know the HAL module, like those of the API. The recent tacos are read back as a tree, since a client that only follows
+ * their links doesn’t need them as objects.
+ *
+ * The time to write or read a payload says nothing about the bytes it puts on the wire, so payloadSizes() reports the size of each payload as a
+ * counter of its own (payloadSizes:tacoBytes and so on, in the console and in the JSON results of BenchmarkRunner). It runs a single shot, so the
+ * counters, which JMH sums over the invocations, are the sizes themselves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryFormatsBenchmark {
+
+	@Param({ "json", "cbor", "smile" })
+	private String format;
+
+	private Taco taco;
+	private Order order;
+	private CollectionModel<TacoRepresentation> recentTacos;
+
+	private ObjectWriter writer;
+	private ObjectReader tacoReader;
+	private ObjectReader orderReader;
+	private ObjectMapper mapper;
+
+	private byte[] tacoBytes;
+	private byte[] orderBytes;
+	private byte[] recentTacosBytes;
+
+	@Setup
+	public void setUp() throws IOException {
+		mapper = BinaryFormatsConfig.withHal(new ObjectMapper(factory(format)));
+		writer = mapper.writer();
+		tacoReader = mapper.readerFor(Taco.class);
+		orderReader = mapper.readerFor(Order.class);
+
+		taco = BenchmarkData.taco(1);
+		order = BenchmarkData.order(1, 3);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tacos/recent");
+		request.setServerName("tacocloud.example.com");
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+		try {
+			recentTacos = new TacoRepresentationAssembler().toCollectionModel(BenchmarkData.tacos(12));
+		} finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+
+		tacoBytes = writer.writeValueAsBytes(taco);
+		orderBytes = writer.writeValueAsBytes(order);
+		recentTacosBytes = writer.writeValueAsBytes(recentTacos);
+	}
+
+	private static JsonFactory factory(String format) {
+		switch (format) {
+		case "cbor":
+			return new CBORFactory();
+		case "smile":
+			return new SmileFactory();
+		default:
+			return new JsonFactory();
+		}
+	}
+
+	/* the size of each payload, in bytes */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class PayloadSizes {
+
+		public long tacoBytes;
+		public long orderBytes;
+		public long recentTacosBytes;
+
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 0)
+	@Measurement(iterations = 1)
+	public void payloadSizes(PayloadSizes sizes) {
+		sizes.tacoBytes = tacoBytes.length;
+		sizes.orderBytes = orderBytes.length;
+		sizes.recentTacosBytes = recentTacosBytes.length;
+	}
+
+	@Benchmark
+	public byte[] writeTaco() throws IOException {
+		return writer.writeValueAsBytes(taco);
+	}
+
+	@Benchmark
+	public byte[] writeOrder() throws IOException {
+		return writer.writeValueAsBytes(order);
+	}
+
+	@Benchmark
+	public byte[] writeRecentTacos() throws IOException {
+		return writer.writeValueAsBytes(recentTacos);
+	}
+
+	@Benchmark
+	public Taco readTaco() throws IOException {
+		return tacoReader.readValue(tacoBytes);
+	}
+
+	@Benchmark
+	public Order readOrder() throws IOException {
+		return orderReader.readValue(orderBytes);
+	}
+
+	@Benchmark
+	public JsonNode readRecentTacos() throws IOException {
+		return mapper.readTree(recentTacosBytes);
+	}
+
+}
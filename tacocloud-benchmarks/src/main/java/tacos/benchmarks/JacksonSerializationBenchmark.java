@@ -0,0 +1,80 @@
+package tacos.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import tacos.Order;
+import tacos.Taco;
+
+/*
+ * JSON serialization and parsing of the domain types, as done by the API for every Taco and Order it receives or returns. The readers and writers
+ * are created once, like Spring MVC’s message converters hold on to their ObjectMapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonSerializationBenchmark {
+
+	private Taco taco;
+	private Order order;
+
+	private ObjectWriter tacoWriter;
+	private ObjectWriter orderWriter;
+	private ObjectReader tacoReader;
+	private ObjectReader orderReader;
+
+	private byte[] tacoJson;
+	private byte[] orderJson;
+
+	@Setup
+	public void setUp() throws JsonProcessingException {
+		ObjectMapper mapper = new ObjectMapper();
+		taco = BenchmarkData.taco(1);
+		order = BenchmarkData.order(1, 3);
+		tacoWriter = mapper.writerFor(Taco.class);
+		orderWriter = mapper.writerFor(Order.class);
+		tacoReader = mapper.readerFor(Taco.class);
+		orderReader = mapper.readerFor(Order.class);
+		tacoJson = tacoWriter.writeValueAsBytes(taco);
+		orderJson = orderWriter.writeValueAsBytes(order);
+	}
+
+	@Benchmark
+	public byte[] writeTaco() throws JsonProcessingException {
+		return tacoWriter.writeValueAsBytes(taco);
+	}
+
+	@Benchmark
+	public byte[] writeOrder() throws JsonProcessingException {
+		return orderWriter.writeValueAsBytes(order);
+	}
+
+	@Benchmark
+	public Taco readTaco() throws Exception {
+		return tacoReader.readValue(tacoJson);
+	}
+
+	@Benchmark
+	public Order readOrder() throws Exception {
+		return orderReader.readValue(orderJson);
+	}
+
+}
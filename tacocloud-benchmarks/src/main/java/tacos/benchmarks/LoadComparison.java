@@ -0,0 +1,136 @@
+package tacos.benchmarks;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * A load comparison of running applications: the servlet API (tacocloud-api, in the tacos application) and the reactive API
+ * (tacocloud-api-reactive), or the tacos application with and without its virtual thread mode (tacocloud.threads.virtual, see VirtualThreadsConfig).
+ * Every target is sent the same GET request by as many concurrent clients as given, each one sending its next request as soon as it has read the
+ * response to the previous one, for the given number of seconds (after a warm-up a third as long). It prints the throughput, the latency percentiles
+ * and the errors (failed connections, timeouts, or any status but 2xx) of each target, for each level of concurrency.
+ *
+ * The clients are non-blocking themselves, so a single JVM can keep thousands of connections open, well past the 200 threads of Tomcat:
+ *
+ * java -cp tacocloud-benchmarks/target/benchmarks.jar tacos.benchmarks.LoadComparison [concurrency,...] [seconds] [path] [base URL...]
+ *
+ * java -cp tacocloud-benchmarks/target/benchmarks.jar tacos.benchmarks.LoadComparison 2000 60 /orders http://localhost:8080 http://localhost:8082
+ *
+ * Throughput versus concurrency, of a platform thread instance on 8080 and a virtual thread instance (--server.port=8090
+ * --tacocloud.threads.virtual=true) on 8090:
+ *
+ * java -cp tacocloud-benchmarks/target/benchmarks.jar tacos.benchmarks.LoadComparison 50,200,1000,5000 30 /orders http://localhost:8080
+ * http://localhost:8090
+ *
+ * The defaults are 1000 clients, 30 seconds, /design/recent, and the default ports of both APIs (8080 and 8082).
+ */
+public class LoadComparison {
+
+	/* the latencies are counted per millisecond, up to a minute; slower responses are counted in the last bucket */
+	private static final int MAX_LATENCY_MILLIS = 60_000;
+
+	public static void main(String[] args) {
+		String[] concurrencyLevels = args.length > 0 ? args[0].split(",") : new String[] { "1000" };
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+		String path = args.length > 2 ? args[2] : "/design/recent";
+		List<String> baseUrls = args.length > 3 ? Arrays.asList(args).subList(3, args.length)
+				: Arrays.asList("http://localhost:8080", "http://localhost:8082");
+
+		System.out.printf("%d s per run, GET %s%n", seconds, path);
+		System.out.printf("%-30s %8s %10s %10s %10s %10s %10s %10s%n", "target", "clients", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+		for (String level : concurrencyLevels) {
+			int concurrency = Integer.parseInt(level.trim());
+			for (String baseUrl : baseUrls) {
+				run(baseUrl + path, concurrency, Duration.ofSeconds(Math.max(1, seconds / 3)));
+				Result result = run(baseUrl + path, concurrency, Duration.ofSeconds(seconds));
+				System.out.printf("%-30s %8d %10.0f %10d %10d %10d %10d %10d%n", baseUrl, concurrency, result.requests() / (double) seconds,
+						result.percentile(0.50), result.percentile(0.99), result.percentile(0.999), result.max(), result.errors.sum());
+			}
+		}
+	}
+
+	private static Result run(String url, int concurrency, Duration duration) {
+		ConnectionProvider connections = ConnectionProvider.builder("load-comparison")
+				.maxConnections(concurrency)
+				.pendingAcquireMaxCount(-1)
+				.build();
+		HttpClient client = HttpClient.create(connections).responseTimeout(Duration.ofMillis(MAX_LATENCY_MILLIS));
+		Result result = new Result();
+		long deadline = System.nanoTime() + duration.toNanos();
+
+		Flux.range(0, concurrency)
+				.flatMap(clientNumber -> Mono.defer(() -> request(client, url, result)).repeat(() -> System.nanoTime() < deadline), concurrency)
+				.blockLast();
+		connections.disposeLater().block();
+		return result;
+	}
+
+	private static Mono<Void> request(HttpClient client, String url, Result result) {
+		long start = System.nanoTime();
+		return client.get()
+				.uri(url)
+				.responseSingle((response, body) -> body.asByteArray().then(Mono.just(response.status().code())))
+				.doOnNext(status -> {
+					if (status / 100 == 2) {
+						result.record((System.nanoTime() - start) / 1_000_000);
+					} else {
+						result.errors.increment();
+					}
+				})
+				.onErrorResume(e -> {
+					result.errors.increment();
+					return Mono.empty();
+				})
+				.then();
+	}
+
+	private static class Result {
+
+		private final AtomicLongArray latencies = new AtomicLongArray(MAX_LATENCY_MILLIS + 1);
+
+		private final LongAdder errors = new LongAdder();
+
+		void record(long millis) {
+			latencies.incrementAndGet((int) Math.min(millis, MAX_LATENCY_MILLIS));
+		}
+
+		long requests() {
+			long count = 0;
+			for (int i = 0; i < latencies.length(); i++) {
+				count += latencies.get(i);
+			}
+			return count;
+		}
+
+		long percentile(double percentile) {
+			long rank = (long) Math.ceil(requests() * percentile);
+			long count = 0;
+			for (int i = 0; i < latencies.length(); i++) {
+				count += latencies.get(i);
+				if (count >= rank && count > 0) {
+					return i;
+				}
+			}
+			return 0;
+		}
+
+		long max() {
+			for (int i = latencies.length() - 1; i >= 0; i--) {
+				if (latencies.get(i) > 0) {
+					return i;
+				}
+			}
+			return 0;
+		}
+
+	}
+
+}
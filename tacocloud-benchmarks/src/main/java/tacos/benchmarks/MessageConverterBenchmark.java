@@ -0,0 +1,91 @@
+package tacos.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
+
+import tacos.Order;
+import tacos.messaging.MessagingConfig;
+
+/*
+ * The conversion of an Order to a JMS message and back, with the MappingJackson2MessageConverter configured by the JMS MessagingConfig (JSON text
+ * with the 'order' type id). No broker is involved: the Session and the TextMessage are stand-ins that only keep the text and the properties the
+ * converter sets, so the benchmark measures the conversion alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageConverterBenchmark {
+
+	private MappingJackson2MessageConverter converter;
+
+	private Session session;
+
+	private Order order;
+
+	@Setup
+	public void setUp() {
+		converter = new MessagingConfig().messageConverter();
+		session = (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[] { Session.class }, (proxy, method, args) -> {
+			if (method.getName().equals("createTextMessage")) {
+				return textMessage(args == null ? null : (String) args[0]);
+			}
+			throw new UnsupportedOperationException(method.getName());
+		});
+		order = BenchmarkData.order(1, 3);
+	}
+
+	@Benchmark
+	public Object roundTrip() throws JMSException {
+		Message message = converter.toMessage(order, session);
+		return converter.fromMessage(message);
+	}
+
+	private static TextMessage textMessage(String initialText) {
+		Map<String, Object> properties = new HashMap<>();
+		String[] text = { initialText };
+		return (TextMessage) Proxy.newProxyInstance(TextMessage.class.getClassLoader(), new Class<?>[] { TextMessage.class }, (proxy, method, args) -> {
+			String name = method.getName();
+			if (name.equals("setText")) {
+				text[0] = (String) args[0];
+				return null;
+			}
+			if (name.equals("getText")) {
+				return text[0];
+			}
+			if (name.startsWith("set") && name.endsWith("Property")) {
+				properties.put((String) args[0], args[1]);
+				return null;
+			}
+			if (name.startsWith("get") && name.endsWith("Property")) {
+				return properties.get(args[0]);
+			}
+			if (name.equals("propertyExists")) {
+				return properties.containsKey(args[0]);
+			}
+			return null;
+		});
+	}
+
+}
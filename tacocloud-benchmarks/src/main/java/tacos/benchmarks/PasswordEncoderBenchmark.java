@@ -0,0 +1,53 @@
+package tacos.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/*
+ * The cost of hashing (at registration, see RegistrationFormat.toUser()) and of checking (at every login) a password with BCryptPasswordEncoder.
+ * Each step of the strength (the log2 of the number of rounds) doubles the time; 10 is the lowest one BoundedPasswordEncoder.calibrate() picks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+	@Param({ "4", "8", "10", "12" })
+	private int strength;
+
+	private BCryptPasswordEncoder encoder;
+
+	private String hash;
+
+	@Setup
+	public void setUp() {
+		encoder = new BCryptPasswordEncoder(strength);
+		hash = encoder.encode("aA@00000");
+	}
+
+	@Benchmark
+	public String encode() {
+		return encoder.encode("aA@00000");
+	}
+
+	@Benchmark
+	public boolean matches() {
+		return encoder.matches("aA@00000", hash);
+	}
+
+}
@@ -0,0 +1,91 @@
+package tacos.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tacos.Taco;
+import tacos.data.IngredientRepository;
+import tacos.data.RecentTacos;
+import tacos.data.TacoRepository;
+
+/*
+ * Reads of the recent tacos per second, the way /design/recent and the first page of /api/tacos/recent get them: from the in-memory RecentTacos
+ * list, or with the keyset query of TacoRepository (and the batch loading of their ingredients) that served them before. Several threads read at
+ * the same time, like concurrent requests. The database is in memory, so the query figures are a best case: a real database adds a network round
+ * trip to each of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RecentTacosBenchmark {
+
+	@Param({ "10000" })
+	private int tacoCount;
+
+	private ConfigurableApplicationContext context;
+	private TacoRepository tacoRepo;
+	private RecentTacos recentTacos;
+	private TransactionTemplate transactionTemplate;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkJpaConfig.start();
+		tacoRepo = context.getBean(TacoRepository.class);
+		recentTacos = context.getBean(RecentTacos.class);
+		transactionTemplate = context.getBean(TransactionTemplate.class);
+
+		context.getBean(IngredientRepository.class).saveAll(BenchmarkData.INGREDIENTS);
+		List<Taco> tacos = new ArrayList<>();
+		for (int i = 0; i < tacoCount; i++) {
+			tacos.add(BenchmarkData.newTaco(i));
+			if (tacos.size() == 1000) {
+				tacoRepo.saveAll(tacos);
+				tacos.clear();
+			}
+		}
+		tacoRepo.saveAll(tacos);
+		recentTacos.reload();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<Taco> inMemory() {
+		return recentTacos.getTacos();
+	}
+
+	@Benchmark
+	public List<Taco> query() {
+		return transactionTemplate.execute(status -> {
+			List<Taco> recent = tacoRepo.findRecent(PageRequest.of(0, RecentTacos.SIZE));
+			recent.forEach(taco -> taco.getIngredients().size());
+			return recent;
+		});
+	}
+
+}
@@ -0,0 +1,73 @@
+package tacos.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tacos.security.RegistrationFormat;
+
+/*
+ * Bean validation of the username, password and phone number of the registration form, the way Spring MVC validates the @Valid RegistrationFormat
+ * of RegistrationController. The inputs are a valid registration and an invalid one, which fails every rule.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistrationFormatBenchmark {
+
+	@Param({ "valid", "invalid" })
+	private String input;
+
+	private Validator validator;
+
+	private RegistrationFormat form;
+
+	@Setup
+	public void setUp() {
+		validator = Validation.buildDefaultValidatorFactory().getValidator();
+		form = new RegistrationFormat();
+		if (input.equals("valid")) {
+			form.setUsername("habuma.00");
+			form.setPassword("aA@00000");
+			form.setPhone("1231231234");
+		} else {
+			form.setUsername("_habuma..00_");
+			form.setPassword("aaaaaaaa aaaa");
+			form.setPhone("0123");
+		}
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<RegistrationFormat>> username() {
+		return validator.validateProperty(form, "username");
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<RegistrationFormat>> password() {
+		return validator.validateProperty(form, "password");
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<RegistrationFormat>> phone() {
+		return validator.validateProperty(form, "phone");
+	}
+
+}
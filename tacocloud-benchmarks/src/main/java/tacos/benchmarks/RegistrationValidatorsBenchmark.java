@@ -0,0 +1,123 @@
+package tacos.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tacos.security.PasswordValidator;
+import tacos.security.PhoneNumberValidator;
+import tacos.security.UsernameValidator;
+
+/*
+ * The single-pass validators of RegistrationFormat against the regular expressions they replaced, matched the way @Pattern matched them (with
+ * Matcher.matches()), without the rest of Bean Validation (see RegistrationFormatBenchmark for the whole of it).
+ *
+ * Besides a valid and an invalid registration, crafted long inputs: a password of 10000 chars with no digit, which each lookahead of its regular
+ * expression scans to the end (and then back, as .* backtracks), and a phone number of 10000 digits, which [0-9]{9,14} reads up to its 15th digit.
+ * The length lookahead of the username bounds its regular expression to 21 chars, so a username of 10000 chars only shows that it stays bounded.
+ * The setup checks that both ways agree on every input.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistrationValidatorsBenchmark {
+
+	private static final Pattern USERNAME = Pattern.compile("^(?=.{8,20}$)(?![_.])(?!.*[_.]{2})[a-zA-Z0-9._]+(?<![_.])$");
+	private static final Pattern PASSWORD = Pattern.compile("^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=])(?=\\S+$).{8,}$");
+	private static final Pattern PHONE = Pattern.compile("^[1-9][0-9]{9,14}$");
+
+	private static final int WORST_CASE_LENGTH = 10000;
+
+	@Param({ "valid", "invalid", "worst-case" })
+	private String input;
+
+	private final UsernameValidator usernameValidator = new UsernameValidator();
+	private final PasswordValidator passwordValidator = new PasswordValidator();
+	private final PhoneNumberValidator phoneValidator = new PhoneNumberValidator();
+
+	private String username;
+	private String password;
+	private String phone;
+
+	@Setup
+	public void setUp() {
+		switch (input) {
+		case "valid":
+			username = "habuma.00";
+			password = "aA@00000";
+			phone = "1231231234";
+			break;
+		case "invalid":
+			username = "_habuma..00_";
+			password = "aaaaaaaa aaaa";
+			phone = "0123";
+			break;
+		default:
+			username = repeat("a.", WORST_CASE_LENGTH / 2);
+			password = repeat("aA@", WORST_CASE_LENGTH / 3);
+			phone = repeat("1", WORST_CASE_LENGTH);
+		}
+		check(USERNAME, usernameValidator.isValid(username, null), username);
+		check(PASSWORD, passwordValidator.isValid(password, null), password);
+		check(PHONE, phoneValidator.isValid(phone, null), phone);
+	}
+
+	private static String repeat(String value, int times) {
+		StringBuilder builder = new StringBuilder(value.length() * times);
+		for (int i = 0; i < times; i++) {
+			builder.append(value);
+		}
+		return builder.toString();
+	}
+
+	private static void check(Pattern pattern, boolean valid, String value) {
+		if (pattern.matcher(value).matches() != valid) {
+			throw new IllegalStateException(pattern + " and its validator disagree on " + value);
+		}
+	}
+
+	@Benchmark
+	public boolean usernameRegex() {
+		return USERNAME.matcher(username).matches();
+	}
+
+	@Benchmark
+	public boolean usernameValidator() {
+		return usernameValidator.isValid(username, null);
+	}
+
+	@Benchmark
+	public boolean passwordRegex() {
+		return PASSWORD.matcher(password).matches();
+	}
+
+	@Benchmark
+	public boolean passwordValidator() {
+		return passwordValidator.isValid(password, null);
+	}
+
+	@Benchmark
+	public boolean phoneRegex() {
+		return PHONE.matcher(phone).matches();
+	}
+
+	@Benchmark
+	public boolean phoneValidator() {
+		return phoneValidator.isValid(phone, null);
+	}
+
+}
@@ -0,0 +1,92 @@
+package tacos.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import tacos.Ingredient;
+import tacos.Taco;
+import tacos.web.api.DesignTacoController;
+import tacos.web.api.IngredientController;
+import tacos.web.api.IngredientRepresentation;
+import tacos.web.api.TacoRepresentation;
+import tacos.web.api.TacoRepresentationAssembler;
+
+/*
+ * The HAL representation of the recent tacos (/api/tacos/recent): one TacoRepresentation per taco, each with a self link and a nested collection of
+ * IngredientRepresentation with their own links. WebMvcLinkBuilder builds the links from the current request, so a request is bound to the benchmark
+ * thread, like Spring MVC binds one to the thread handling it.
+ *
+ * toCollectionModel() is what the API runs: the base URIs are resolved once per collection and the ids appended to them. linkBuilderPerLink() builds
+ * the very same representation the way RepresentationModelAssemblerSupport.createModelWithId() does, with one WebMvcLinkBuilder per link.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TacoRepresentationAssemblerBenchmark {
+
+	@Param({ "12" })
+	private int tacoCount;
+
+	private List<Taco> tacos;
+
+	private TacoRepresentationAssembler assembler;
+
+	@Setup
+	public void setUp() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tacos/recent");
+		request.setServerName("tacocloud.example.com");
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+		tacos = BenchmarkData.tacos(tacoCount);
+		assembler = new TacoRepresentationAssembler();
+	}
+
+	@TearDown
+	public void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Benchmark
+	public CollectionModel<TacoRepresentation> toCollectionModel() {
+		return assembler.toCollectionModel(tacos);
+	}
+
+	@Benchmark
+	public CollectionModel<TacoRepresentation> linkBuilderPerLink() {
+		List<TacoRepresentation> representations = new ArrayList<>();
+		for (Taco taco : tacos) {
+			List<IngredientRepresentation> ingredients = new ArrayList<>();
+			for (Ingredient ingredient : taco.getIngredients()) {
+				IngredientRepresentation ingredientRepresentation = new IngredientRepresentation(ingredient);
+				ingredientRepresentation.add(WebMvcLinkBuilder.linkTo(IngredientController.class).slash(ingredient.getId()).withSelfRel());
+				ingredients.add(ingredientRepresentation);
+			}
+			TacoRepresentation representation = new TacoRepresentation(taco, CollectionModel.of(ingredients));
+			representation.add(WebMvcLinkBuilder.linkTo(DesignTacoController.class).slash(taco.getId()).withSelfRel());
+			representations.add(representation);
+		}
+		return CollectionModel.of(representations);
+	}
+
+}
@@ -0,0 +1,21 @@
+package tacos.data;
+
+import java.util.Date;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import tacos.IdempotencyRecord;
+
+public interface IdempotencyRecordRepository extends CrudRepository<IdempotencyRecord, String> {
+
+	/* the expired keys are deleted with a single statement, through the index on created_at, without loading them */
+	@Transactional
+	@Modifying
+	@Query("delete from IdempotencyRecord r where r.createdAt < :createdAt")
+	int deleteCreatedBefore(@Param("createdAt") Date createdAt);
+
+}
@@ -0,0 +1,122 @@
+package tacos.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import tacos.Ingredient;
+
+/**
+ * The ingredient catalog is tiny and almost never written, but its ingredients are the most frequently read data of the API. IngredientCatalog keeps
+ * the whole catalog in memory as an immutable snapshot, so that reads neither take a lock nor go to the database.
+ *
+ * Every write goes through save() or deleteById(): the change is written with IngredientRepository first, then a new snapshot is loaded and swapped
+ * in with a single volatile write. Readers see either the old snapshot or the new one, never a half built one. Each snapshot carries a version number
+ * that increases with every change, so callers can tell whether the catalog changed since they last looked at it.
+ *
+ * Writes made directly with IngredientRepository (for example, through the Spring Data REST end-points) must call refresh() to be visible.
+ */
+@Service
+public class IngredientCatalog {
+
+	private final IngredientRepository repo;
+
+	private volatile Snapshot snapshot;
+
+	/*
+	 * A lock rather than synchronized: refresh() reads the database while holding it, and a virtual thread blocked inside a synchronized block would
+	 * pin its carrier thread (see VirtualThreadsConfig in the tacos module).
+	 */
+	private final ReentrantLock writeLock = new ReentrantLock();
+
+	@Autowired
+	public IngredientCatalog(IngredientRepository repo) {
+		this.repo = repo;
+	}
+
+	public List<Ingredient> findAll() {
+		return snapshot().ingredients;
+	}
+
+	public Optional<Ingredient> findById(String id) {
+		return Optional.ofNullable(snapshot().byId.get(id));
+	}
+
+	public long getVersion() {
+		return snapshot().version;
+	}
+
+	public Ingredient save(Ingredient ingredient) {
+		Ingredient saved = repo.save(ingredient);
+		refresh();
+		return saved;
+	}
+
+	public void deleteById(String id) {
+		try {
+			repo.deleteById(id);
+		} finally {
+			refresh();
+		}
+	}
+
+	/* Only writers lock, to make sure the snapshots are loaded one after the other and versions are never reused */
+	public void refresh() {
+		writeLock.lock();
+		try {
+			long version = snapshot == null ? 1 : snapshot.version + 1;
+			snapshot = new Snapshot(repo.findAll(), version);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/*
+	 * The first snapshot is loaded on the first read rather than at start-up, so that the ingredients saved by the data loader (see
+	 * DevelopmentConfig) after the application context is ready are part of it.
+	 */
+	private Snapshot snapshot() {
+		Snapshot current = snapshot;
+		if (current == null) {
+			writeLock.lock();
+			try {
+				if (snapshot == null) {
+					refresh();
+				}
+				current = snapshot;
+			} finally {
+				writeLock.unlock();
+			}
+		}
+		return current;
+	}
+
+	private static class Snapshot {
+
+		private final List<Ingredient> ingredients;
+
+		private final Map<String, Ingredient> byId;
+
+		private final long version;
+
+		private Snapshot(Iterable<Ingredient> ingredients, long version) {
+			List<Ingredient> list = new ArrayList<>();
+			Map<String, Ingredient> map = new HashMap<>();
+			for (Ingredient ingredient : ingredients) {
+				list.add(ingredient);
+				map.put(ingredient.getId(), ingredient);
+			}
+			this.ingredients = Collections.unmodifiableList(list);
+			this.byId = Collections.unmodifiableMap(map);
+			this.version = version;
+		}
+	}
+
+}
@@ -1,5 +1,8 @@
 package tacos.data;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 import tacos.Ingredient;
@@ -17,4 +20,13 @@ public interface IngredientRepository extends CrudRepository<Ingredient, String>
 	 *
 	 * You can similarly define the TacoRepository and the OrderRepository like this.
 	 */
+
+	/*
+	 * The whole catalog is what IngredientCatalog loads after every write. When the query cache is enabled (see the 'cache' profile), its result is
+	 * cached as a list of ids, and the ingredients themselves come from the second-level cache.
+	 */
+	@Override
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+	Iterable<Ingredient> findAll();
+
 }
@@ -0,0 +1,25 @@
+package tacos.data;
+
+import java.util.Date;
+
+/**
+ * A projection of the columns of an Order that the order history of a user renders: when it was placed and where it was delivered. The credit card
+ * columns are never selected, so they can’t leak into the history, and neither are the user nor the tacos (see OrderTacoName).
+ */
+public interface OrderHistoryEntry {
+
+	Long getId();
+
+	Date getPlacedAt();
+
+	String getDeliveryName();
+
+	String getDeliveryStreet();
+
+	String getDeliveryCity();
+
+	String getDeliveryState();
+
+	String getDeliveryZip();
+
+}
@@ -0,0 +1,23 @@
+package tacos.data;
+
+import java.util.List;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.repository.CrudRepository;
+
+import tacos.OrderOutboxEntry;
+
+public interface OrderOutboxRepository extends CrudRepository<OrderOutboxEntry, Long> {
+
+	/*
+	 * The oldest entries of the outbox, in the order the orders were placed. The rows are locked (SELECT ... FOR UPDATE) until the transaction of the
+	 * relay ends, so that when several instances of the application run, only one of them relays a given batch and the orders are still sent in
+	 * sequence.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	List<OrderOutboxEntry> findAllByOrderByOrderIdAsc(Pageable pageable);
+
+}
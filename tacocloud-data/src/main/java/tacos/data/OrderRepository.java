@@ -1,16 +1,88 @@
 package tacos.data;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import tacos.Order;
 import tacos.User;
 
-public interface OrderRepository extends CrudRepository<Order, Long> {
+public interface OrderRepository extends CrudRepository<Order, Long>, OrderRepositoryCustom {
 
 	/* Along with adding this method, you’ve also added the necessary findByUser() method. Because it contains the 'findByUser' in it. */
 	List<Order> findByUserOrderByPlacedAtDesc(User user, Pageable pageable);
 
+	/*
+	 * The order history of a user, newest first, paged with a keyset on (placedAt, id) rather than with an offset: findHistory() reads the first
+	 * page, findHistoryBefore() the page after the last order of the previous one. Both are an index seek on (user_id, placed_at, id) (see Order),
+	 * and select only the OrderHistoryEntry columns. The id breaks the ties between orders placed within the same millisecond.
+	 */
+	@Query("select o.id as id, o.placedAt as placedAt, o.deliveryName as deliveryName, o.deliveryStreet as deliveryStreet,"
+			+ " o.deliveryCity as deliveryCity, o.deliveryState as deliveryState, o.deliveryZip as deliveryZip from Order o"
+			+ " where o.user = :user order by o.placedAt desc, o.id desc")
+	List<OrderHistoryEntry> findHistory(@Param("user") User user, Pageable pageable);
+
+	@Query("select o.id as id, o.placedAt as placedAt, o.deliveryName as deliveryName, o.deliveryStreet as deliveryStreet,"
+			+ " o.deliveryCity as deliveryCity, o.deliveryState as deliveryState, o.deliveryZip as deliveryZip from Order o"
+			+ " where o.user = :user and (o.placedAt < :placedAt or (o.placedAt = :placedAt and o.id < :id)) order by o.placedAt desc, o.id desc")
+	List<OrderHistoryEntry> findHistoryBefore(@Param("user") User user, @Param("placedAt") Date placedAt, @Param("id") Long id, Pageable pageable);
+
+	/* The ids and names of the tacos of the given orders, in a single query joining the orders with their join table, in the order each lists them */
+	@Query("select o.id as orderId, t.id as tacoId, t.name as tacoName from Order o join o.tacos t where o.id in :orderIds order by o.id, index(t)")
+	List<OrderTacoName> findTacoNames(@Param("orderIds") Collection<Long> orderIds);
+
+	/*
+	 * Unlike findAll(), which loads every order into a List before returning, streamAll() is backed by a JDBC cursor. The fetch size hint tells the
+	 * driver to pull the rows from the database in chunks of 100, so only one chunk is held in memory at a time. The stream must be consumed (and
+	 * closed) inside a transaction, because the cursor lives on the connection of that transaction.
+	 *
+	 * The user of each order comes in the same row, rather than from one more query per order. The join is a left one, since an order posted
+	 * without a user has none.
+	 */
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "100"))
+	@Query("select o from Order o left join fetch o.user order by o.id")
+	Stream<Order> streamAll();
+
+	/*
+	 * Loads all the orders with their user and tacos in one query, through the "Order.tacos" entity graph declared on Order. The 'distinct' is
+	 * needed because the join returns one row per taco, and Hibernate would otherwise return the same order once for each of them.
+	 */
+	@EntityGraph("Order.tacos")
+	@Query("select distinct o from Order o")
+	List<Order> findAllWithTacos();
+
+	/*
+	 * The orders listing is paged by id: findIds() reads the ids of the first page, findIdsAfter() those of the page after the last order of the
+	 * previous one, both from the primary key index.
+	 */
+	@Query("select o.id from Order o order by o.id")
+	List<Long> findIds(Pageable pageable);
+
+	@Query("select o.id from Order o where o.id > :id order by o.id")
+	List<Long> findIdsAfter(@Param("id") Long id, Pageable pageable);
+
+	/*
+	 * The orders of a page of the listing as flat OrderRow projections: one query joins the orders with their user, their tacos and the ingredient
+	 * ids of those tacos, and selects only the columns the listing renders. Nothing is loaded into the persistence context, and the ingredients aren’t
+	 * read: they are looked up in the IngredientCatalog. The rows are sorted so that those of the same order, and of the same position in its list of
+	 * tacos, are consecutive.
+	 */
+	@Query("select o.id as id, o.placedAt as placedAt, o.deliveryName as deliveryName, o.deliveryStreet as deliveryStreet,"
+			+ " o.deliveryCity as deliveryCity, o.deliveryState as deliveryState, o.deliveryZip as deliveryZip, o.ccNumber as ccNumber,"
+			+ " o.ccExpiration as ccExpiration, o.ccCVV as ccCVV, u.id as userId, u.username as username, u.password as password,"
+			+ " u.fullname as fullname, u.street as street, u.city as city, u.state as state, u.zip as zip, u.phoneNumber as phoneNumber,"
+			+ " index(t) as tacoPosition, t.id as tacoId, t.name as tacoName, t.createdAt as tacoCreatedAt, i.id as ingredientId"
+			+ " from Order o left join o.user u left join o.tacos t left join t.ingredients i where o.id in :ids order by o.id, index(t)")
+	List<OrderRow> findRows(@Param("ids") Collection<Long> ids);
+
 }
@@ -0,0 +1,17 @@
+package tacos.data;
+
+import java.util.Map;
+
+/* The part of OrderRepository that Spring Data can’t derive, implemented by OrderRepositoryImpl */
+public interface OrderRepositoryCustom {
+
+	/*
+	 * Sets the given properties (at least one) of the order with the given id, and only them, with a single UPDATE statement: the order isn’t loaded
+	 * first. The keys are names of basic properties of Order, they are written into the query as they are, so they must never come straight from a
+	 * request.
+	 *
+	 * Returns the number of orders updated: 0 if there is no order with this id, 1 otherwise.
+	 */
+	int updateProperties(Long id, Map<String, Object> properties);
+
+}
@@ -0,0 +1,43 @@
+package tacos.data;
+
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Spring Data finds this class by its name (the name of the repository interface, with the Impl suffix) and routes the calls to the methods of
+ * OrderRepositoryCustom to it.
+ *
+ * updateProperties() generates a JPQL bulk update listing only the given properties. Hibernate caches the plan of each distinct statement, and since
+ * callers list the properties in a fixed order, there are only as many of them as there are combinations of properties actually updated.
+ */
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional
+	public int updateProperties(Long id, Map<String, Object> properties) {
+		StringBuilder jpql = new StringBuilder("update Order o set ");
+		boolean first = true;
+		for (String property : properties.keySet()) {
+			if (!first) {
+				jpql.append(", ");
+			}
+			jpql.append("o.").append(property).append(" = :").append(property);
+			first = false;
+		}
+		jpql.append(" where o.id = :id");
+
+		Query update = entityManager.createQuery(jpql.toString());
+		properties.forEach(update::setParameter);
+		update.setParameter("id", id);
+		return update.executeUpdate();
+	}
+
+}
@@ -0,0 +1,60 @@
+package tacos.data;
+
+import java.util.Date;
+
+/**
+ * One row of OrderRepository.findRows(): the columns of an order and of its user, of one of its tacos along with its position in the order, and the
+ * id of one of the ingredients of that taco. An order spans as many consecutive rows as its tacos have ingredients; the user, taco and ingredient
+ * columns are null for an order without a user or without tacos (or a taco without ingredients), because the query uses left joins.
+ */
+public interface OrderRow {
+
+	Long getId();
+
+	Date getPlacedAt();
+
+	String getDeliveryName();
+
+	String getDeliveryStreet();
+
+	String getDeliveryCity();
+
+	String getDeliveryState();
+
+	String getDeliveryZip();
+
+	String getCcNumber();
+
+	String getCcExpiration();
+
+	String getCcCVV();
+
+	Long getUserId();
+
+	String getUsername();
+
+	String getPassword();
+
+	String getFullname();
+
+	String getStreet();
+
+	String getCity();
+
+	String getState();
+
+	String getZip();
+
+	String getPhoneNumber();
+
+	Integer getTacoPosition();
+
+	Long getTacoId();
+
+	String getTacoName();
+
+	Date getTacoCreatedAt();
+
+	String getIngredientId();
+
+}
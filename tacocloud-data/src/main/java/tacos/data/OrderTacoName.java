@@ -0,0 +1,14 @@
+package tacos.data;
+
+/**
+ * One row of the join table between Order and Taco, with the name of the taco: all the order history needs to offer a taco for reordering.
+ */
+public interface OrderTacoName {
+
+	Long getOrderId();
+
+	Long getTacoId();
+
+	String getTacoName();
+
+}
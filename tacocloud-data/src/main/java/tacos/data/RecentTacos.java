@@ -0,0 +1,102 @@
+package tacos.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tacos.Taco;
+
+/**
+ * Keeps the most recently created tacos in memory, newest first, so that the recent tacos end-points (polled constantly by the home page of the
+ * Angular UI) don’t run an ORDER BY created_at DESC query for every request.
+ *
+ * The list is bounded to SIZE tacos and is never modified in place: every write builds a new sorted list and publishes it with a single volatile
+ * write, so that readers never lock and always see a consistent list. Writes are rare compared to reads, so copying twelve references on each of them
+ * is cheap.
+ *
+ * It is written through on every taco creation (see DesignTacoController and TacoEventHandler), and loaded from TacoRepository once the application
+ * is ready (after the data loader of DevelopmentConfig has run), or again whenever tacos are updated or deleted.
+ *
+ * The version number is incremented on every write, whether a taco is added or the list is loaded again. Since the list is reloaded whenever any taco
+ * is updated or deleted, the version also changes whenever any taco changes, which the API uses to build its ETags.
+ */
+@Service
+public class RecentTacos {
+
+	public static final int SIZE = 12;
+
+	/* newest first; the id breaks the ties between tacos created within the same millisecond, like in TacoRepository.findRecent() */
+	private static final Comparator<Taco> NEWEST_FIRST = Comparator.comparing(Taco::getCreatedAt).thenComparing(Taco::getId).reversed();
+
+	private final TacoRepository tacoRepo;
+	private final TransactionTemplate transactionTemplate;
+
+	private volatile List<Taco> tacos = Collections.emptyList();
+
+	private final AtomicLong version = new AtomicLong();
+
+	/* writers lock rather than synchronize, since reload() queries the database while holding the lock (see IngredientCatalog) */
+	private final ReentrantLock writeLock = new ReentrantLock();
+
+	@Autowired
+	public RecentTacos(TacoRepository tacoRepo, TransactionTemplate transactionTemplate) {
+		this.tacoRepo = tacoRepo;
+		this.transactionTemplate = transactionTemplate;
+	}
+
+	public List<Taco> getTacos() {
+		return tacos;
+	}
+
+	public long getVersion() {
+		return version.get();
+	}
+
+	public void add(Taco taco) {
+		writeLock.lock();
+		try {
+			List<Taco> updated = new ArrayList<>(SIZE + 1);
+			updated.addAll(tacos);
+			updated.add(taco);
+			updated.sort(NEWEST_FIRST);
+			if (updated.size() > SIZE) {
+				updated.remove(SIZE);
+			}
+			tacos = Collections.unmodifiableList(updated);
+			version.incrementAndGet();
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/*
+	 * The ingredients are initialized inside the transaction, because the tacos are served long after the persistence context that loaded them is
+	 * closed.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void reload() {
+		writeLock.lock();
+		try {
+			List<Taco> loaded = transactionTemplate.execute(status -> {
+				List<Taco> recent = tacoRepo.findRecent(PageRequest.of(0, SIZE));
+				recent.forEach(taco -> taco.getIngredients().size());
+				return recent;
+			});
+			tacos = Collections.unmodifiableList(new ArrayList<>(loaded));
+			version.incrementAndGet();
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+}
@@ -0,0 +1,13 @@
+package tacos.data;
+
+/**
+ * One row of the join table between Taco and Ingredient. Only the id of the ingredient is read, the ingredients themselves are looked up in the
+ * IngredientCatalog, which already holds all of them in memory.
+ */
+public interface TacoIngredientId {
+
+	Long getTacoId();
+
+	String getIngredientId();
+
+}
@@ -1,9 +1,50 @@
 package tacos.data;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 import tacos.Taco;
 
 public interface TacoRepository extends PagingAndSortingRepository<Taco, Long> {
 
+	/*
+	 * Keyset (seek) pagination for the recent tacos. Instead of asking for page N with an OFFSET, the client hands back the (createdAt, id) of the
+	 * last taco it has seen and the query seeks straight to the next rows through the (created_at, id) index declared on Taco. Returning a List
+	 * rather than a Page means Spring Data only applies the limit from the Pageable and never issues the extra count query.
+	 *
+	 * The id is part of the key so that tacos created within the same millisecond still have a strict order and none of them is skipped or repeated
+	 * between two pages.
+	 *
+	 * These queries deliberately don’t use the "Taco.ingredients" entity graph: join fetching a collection together with a limit makes Hibernate
+	 * apply the limit in memory, after reading every matching row. The ingredients of a page of entities are loaded by the @BatchSize on
+	 * Taco.ingredients, and those of a page of summaries by findIngredientIds(), in one extra query either way.
+	 */
+	@Query("select t from Taco t order by t.createdAt desc, t.id desc")
+	List<Taco> findRecent(Pageable pageable);
+
+	/*
+	 * The pages after the first one are read as TacoSummary projections rather than entities: only the three columns the recent tacos view renders
+	 * are selected, and the rows are never turned into managed entities (nor dirty checked at the end of the transaction). Their ingredients are read
+	 * with findIngredientIds(), since a join with the ingredients can’t be combined with the limit of the page.
+	 */
+	@Query("select t.id as id, t.name as name, t.createdAt as createdAt from Taco t"
+			+ " where t.createdAt < :createdAt or (t.createdAt = :createdAt and t.id < :id) order by t.createdAt desc, t.id desc")
+	List<TacoSummary> findRecentSummariesBefore(@Param("createdAt") Date createdAt, @Param("id") Long id, Pageable pageable);
+
+	/* The ingredient ids of the given tacos, in a single query joining the tacos with their join table */
+	@Query("select t.id as tacoId, i.id as ingredientId from Taco t join t.ingredients i where t.id in :tacoIds")
+	List<TacoIngredientId> findIngredientIds(@Param("tacoIds") Collection<Long> tacoIds);
+
+	/* Loads a single taco with its ingredients in one query, through the "Taco.ingredients" entity graph declared on Taco */
+	@EntityGraph("Taco.ingredients")
+	Optional<Taco> findWithIngredientsById(Long id);
+
 }
@@ -0,0 +1,18 @@
+package tacos.data;
+
+import java.util.Date;
+
+/**
+ * A projection of the columns of a Taco that its list representations need, without its ingredients (see TacoIngredientId). Spring Data implements
+ * it on top of the rows of a query selecting these very columns, with aliases matching the property names, so no Taco entity is ever instantiated or
+ * managed by the persistence context.
+ */
+public interface TacoSummary {
+
+	Long getId();
+
+	String getName();
+
+	Date getCreatedAt();
+
+}
@@ -1,5 +1,11 @@
 package tacos.data;
 
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 import tacos.User;
@@ -24,4 +30,16 @@ public interface UserRepository extends CrudRepository<User, Long> {
 	 * Because your User class implements UserDetails, and because UserRepository provides a findByUsername() method, they’re perfectly suitable for
 	 * use in a custom UserDetailsService implementation. (see UserRepositoryUserDetailsService)
 	 */
+
+	/* whether a user has the given username: a seek on its unique index (see User) */
+	boolean existsByUsername(String username);
+
+	/*
+	 * Every username, for the Bloom filter of RegisteredUsernames, read from a JDBC cursor in chunks of 1000 rather than loaded all at once (see
+	 * OrderRepository.streamAll()). The stream must be consumed inside a transaction.
+	 */
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+	@Query("select u.username from User u")
+	Stream<String> streamUsernames();
+
 }
@@ -0,0 +1,83 @@
+package tacos;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+
+import org.springframework.data.domain.Persistable;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The outcome of a POST made with an Idempotency-Key header, kept so that a client retrying the same request gets the original response instead of
+ * creating the order (or taco) a second time. It is saved in the same transaction as what the request created, so either both are saved or none,
+ * and the primary key makes a second instance of the application fail to save the same key twice.
+ *
+ * The key is prefixed with the end-point it was used on (POST /orders and POST /design don’t share their keys). The fingerprint is a hash of the
+ * request body, to tell a retry from a different request reusing the key. The body is the JSON of the response.
+ *
+ * The key is assigned by the client, so the record is Persistable: a new record is always inserted (never merged into a row another instance may
+ * have saved in the meantime), and a duplicate key fails on the primary key instead of overwriting it.
+ */
+@Data
+@NoArgsConstructor(access = AccessLevel.PRIVATE, force = true)
+@Entity
+@Table(name = "Idempotency_Key", indexes = @Index(name = "idempotency_key_created_at_idx", columnList = "created_at"))
+public class IdempotencyRecord implements Persistable<String> {
+
+	@Id
+	@Column(name = "idempotency_key")
+	private String key;
+
+	private String fingerprint;
+
+	private int status;
+
+	@Column(length = 1048576)
+	private byte[] body;
+
+	/* named, so that the index of @Table finds it whatever naming strategy is in use */
+	@Column(name = "created_at")
+	private Date createdAt;
+
+	@Transient
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private boolean stored;
+
+	public IdempotencyRecord(String key, String fingerprint, int status, byte[] body) {
+		this.key = key;
+		this.fingerprint = fingerprint;
+		this.status = status;
+		this.body = body;
+		this.createdAt = new Date();
+	}
+
+	@Override
+	public String getId() {
+		return key;
+	}
+
+	@Override
+	public boolean isNew() {
+		return !stored;
+	}
+
+	@PostLoad
+	@PostPersist
+	void markStored() {
+		stored = true;
+	}
+
+}
@@ -5,18 +5,27 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.OrderColumn;
 import javax.persistence.PrePersist;
 import javax.persistence.Table;
 import javax.validation.constraints.Digits;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Pattern;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import org.hibernate.validator.constraints.CreditCardNumber;
 
 import lombok.Data;
@@ -29,10 +38,18 @@ import lombok.Data;
  * constructor with specific arguments (fields/properties) as your requirement. In fact, the @Data annotation is provided by Lombok and tells Lombok
  * to generate all of getter and setter methods as well as a constructor that accepts all final properties as arguments. By using Lombok, you can keep
  * the code for Ingredient slim and trim.
+ *
+ * The "Order.tacos" entity graph fetches an order with its user and tacos in a single query (see OrderRepository). The ingredients of those tacos
+ * are left out of the graph, since every taco would repeat the rows of its order once per ingredient; they are loaded in batches instead (see the
+ * @BatchSize on Taco.ingredients).
+ *
+ * The composite index on (user_id, placed_at, id) backs the keyset pagination of the order history of a user (see OrderRepository.findHistory()):
+ * every page is an index seek on the orders of that user, already sorted, however many orders the other users placed.
  */
 @Data
 @Entity
-@Table(name = "Taco_Order")
+@Table(name = "Taco_Order", indexes = @Index(name = "taco_order_user_id_placed_at_id_idx", columnList = "user_id, placed_at, id"))
+@NamedEntityGraph(name = "Order.tacos", attributeNodes = { @NamedAttributeNode("user"), @NamedAttributeNode("tacos") })
 public class Order implements Serializable {
 	private static final long serialVersionUID = 1L;
 
@@ -42,13 +59,19 @@ public class Order implements Serializable {
 	 * named Order, but order is a reserved word in SQL and would cause problems.
 	 */
 
+	/* ids are allocated 50 at a time from the taco_order_seq sequence (see PooledSequenceGenerator) */
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(generator = "taco_order_seq")
+	@GenericGenerator(name = "taco_order_seq", strategy = "tacos.PooledSequenceGenerator", parameters = {
+			@Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "taco_order_seq"),
+			@Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50") })
 	private Long id;
 
+	@Column(name = "placed_at")
 	private Date placedAt;
 
 	@ManyToOne
+	@JoinColumn(name = "user_id")
 	private User user;
 	/**
 	 * When you initially create the Order object that’s bound to the order form, it’d be nice if you could prepopulate the Order with the user’s name
@@ -87,8 +110,15 @@ public class Order implements Serializable {
 	@Digits(integer = 3, fraction = 0, message = "Invalid CVV")
 	private String ccCVV;
 
-	/** The @ManyToMany annotation declares that an Order can have many Taco objects, and a Taco can be a part of many Orders */
+	/**
+	 * The @ManyToMany annotation declares that an Order can have many Taco objects, and a Taco can be a part of many Orders
+	 *
+	 * The same taco can be ordered more than once, and the tacos are listed in the order they were added: @OrderColumn keeps the position of each of
+	 * them in the join table (its tacos_order column), which the listings sort the tacos by (see OrderRepository.findRows()).
+	 */
 	@ManyToMany(targetEntity = Taco.class)
+	@OrderColumn
+	@BatchSize(size = 25)
 	private List<Taco> tacos = new ArrayList<>();
 
 	public void addDesign(Taco design) {
@@ -0,0 +1,55 @@
+package tacos;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An order waiting to be sent to the kitchen (transactional outbox). The entry is written in the same transaction as the Order it refers to, so an
+ * order is either saved with its entry or not saved at all: it can’t be saved and then lost on its way to the message broker. The broker isn’t
+ * involved in that transaction; the entries are drained and sent later by the OrderOutboxRelay.
+ *
+ * attempts and nextAttemptAt record the failed sends of the entry, for the relay to back off before trying again.
+ */
+@Data
+@NoArgsConstructor(access = AccessLevel.PRIVATE, force = true)
+@Entity
+@Table(name = "Order_Outbox", indexes = @Index(name = "order_outbox_order_id_idx", columnList = "order_id"))
+public class OrderOutboxEntry {
+
+	@Id
+	@GeneratedValue(generator = "order_outbox_seq")
+	@GenericGenerator(name = "order_outbox_seq", strategy = "tacos.PooledSequenceGenerator", parameters = {
+			@Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "order_outbox_seq"),
+			@Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50") })
+	private Long id;
+
+	@Column(name = "order_id")
+	private Long orderId;
+
+	private Date createdAt;
+
+	private int attempts;
+
+	private Date nextAttemptAt;
+
+	public OrderOutboxEntry(Long orderId) {
+		this.orderId = orderId;
+		this.createdAt = new Date();
+		this.nextAttemptAt = this.createdAt;
+	}
+
+}
@@ -0,0 +1,34 @@
+package tacos;
+
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * The id generator of Taco, Order and User. Each entity has its own sequence, and instead of calling the sequence for every insert (which is what
+ * GenerationType.AUTO did, and which also kept Hibernate from batching the inserts), the "pooled-lo" optimizer reserves a whole block of ids with a
+ * single call: the value returned by the sequence is the first id of the block, and the next ones are handed out in memory.
+ *
+ * The size of the block is the increment of the sequence. It defaults to the increment_size given in the entity’s @GenericGenerator, and can be
+ * changed for all entities with the tacocloud.id.allocation_size Hibernate property (spring.jpa.properties.tacocloud.id.allocation_size in
+ * application.yml). The database sequences must be created with the same increment (see db/pooled-sequences-postgresql.sql).
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+	public static final String ALLOCATION_SIZE = "tacocloud.id.allocation_size";
+
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+		Object allocationSize = serviceRegistry.getService(ConfigurationService.class).getSettings().get(ALLOCATION_SIZE);
+		if (allocationSize != null) {
+			params.setProperty(INCREMENT_PARAM, allocationSize.toString());
+		}
+		params.putIfAbsent(OPT_PARAM, "pooled-lo");
+		super.configure(type, params, serviceRegistry);
+	}
+
+}
@@ -3,15 +3,23 @@ package tacos;
 import java.util.Date;
 import java.util.List;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToMany;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.PrePersist;
+import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import org.springframework.data.rest.core.annotation.RestResource;
 
 import lombok.Data;
@@ -26,16 +34,28 @@ import lombok.Data;
  * the code for Ingredient slim and trim.
  *
  * The @RestResource annotation lets you give the entity any relation name and the URL path you want (in the json result)
+ *
+ * The composite index on (created_at, id) backs the keyset pagination of the recent tacos (see TacoRepository), so that every page is an index seek
+ * no matter how deep the client pages.
+ *
+ * The "Taco.ingredients" entity graph lets a repository method load a taco together with its ingredients in a single query (see TacoRepository).
  */
 @Data
 @Entity
+@NamedEntityGraph(name = "Taco.ingredients", attributeNodes = @NamedAttributeNode("ingredients"))
+@Table(indexes = @Index(name = "taco_created_at_id_idx", columnList = "created_at, id"))
 @RestResource(rel = "tacos", path = "tacos")
 public class Taco {
 
+	/* ids are allocated 50 at a time from the taco_seq sequence (see PooledSequenceGenerator) */
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(generator = "taco_seq")
+	@GenericGenerator(name = "taco_seq", strategy = "tacos.PooledSequenceGenerator", parameters = {
+			@Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "taco_seq"),
+			@Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50") })
 	private Long id;
 
+	@Column(name = "created_at")
 	private Date createdAt;
 
 	@NotNull
@@ -45,8 +65,12 @@ public class Taco {
 	/**
 	 * To declare the relationship between a Taco and its associated Ingredient list, you annotate ingredients with @ManyToMany. A Taco can have many
 	 * Ingredient objects, and an Ingredient can be a part of many Tacos.
+	 *
+	 * The collection is lazy, so rendering a list of tacos would fire one query per taco to load its ingredients. @BatchSize makes Hibernate load
+	 * the ingredients of up to 25 tacos of the persistence context with one query instead.
 	 */
 	@ManyToMany(targetEntity = Ingredient.class)
+	@BatchSize(size = 25)
 	@Size(min = 1, message = "You must choose at least 1 ingredient")
 	private List<Ingredient> ingredients;
 
@@ -5,10 +5,13 @@ import java.util.Collection;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,7 +25,8 @@ import lombok.RequiredArgsConstructor;
 @Data
 @NoArgsConstructor(access = AccessLevel.PRIVATE, force = true)
 @RequiredArgsConstructor
-@Table(name="\"user\"")// create table in postgresql/mssql/h2 with the reserved keyword "user"
+@Table(name="\"user\"", // create table in postgresql/mssql/h2 with the reserved keyword "user"
+		indexes = @Index(name = "user_username_idx", columnList = "username", unique = true))
 public class User implements UserDetails {
 	/*
 	 * Implementations of UserDetails will provide some essential user information to the framework, such as what authorities are granted to the user
@@ -31,10 +35,15 @@ public class User implements UserDetails {
 
 	private static final long serialVersionUID = 1L;
 
+	/* ids are allocated 50 at a time from the user_seq sequence (see PooledSequenceGenerator) */
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(generator = "user_seq")
+	@GenericGenerator(name = "user_seq", strategy = "tacos.PooledSequenceGenerator", parameters = {
+			@Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "user_seq"),
+			@Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50") })
 	private Long id;
 
+	/* looked up on every login (see UserRepository.findByUsername()): its unique index also keeps two racing registrations from both being saved */
 	private final String username;
 	private final String password;
 	private final String fullname;
@@ -0,0 +1,75 @@
+package tacos.kitchen;
+
+import javax.jms.ConnectionFactory;
+
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jms.DefaultJmsListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+import tacos.threads.VirtualThreads;
+
+/**
+ * The virtual thread mode of the kitchen, enabled with tacocloud.threads.virtual=true on JDK 21 or later, like the one of the tacos application.
+ *
+ * The @JmsListener, @RabbitListener and @KafkaListener consumers run on virtual threads rather than on the platform threads their containers start
+ * by default, and so do the web requests (including the pull-mode receivers of /orders/receive, which block until a message arrives). The listener
+ * container factories are the ones Spring Boot would create, configured from the same properties, but for their task executor.
+ *
+ * The virtual threads come from the VirtualThreads of tacocloud-threads, shared with the tacos application.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tacocloud.threads.virtual", havingValue = "true")
+public class VirtualThreadsConfig {
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+		return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.executor("http-"));
+	}
+
+	@Bean
+	public DefaultJmsListenerContainerFactory jmsListenerContainerFactory(DefaultJmsListenerContainerFactoryConfigurer configurer,
+			ConnectionFactory connectionFactory) {
+		DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+		configurer.configure(factory, connectionFactory);
+		factory.setTaskExecutor(virtualThreadExecutor("jms-"));
+		return factory;
+	}
+
+	@Bean
+	public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(SimpleRabbitListenerContainerFactoryConfigurer configurer,
+			org.springframework.amqp.rabbit.connection.ConnectionFactory connectionFactory) {
+		SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+		configurer.configure(factory, connectionFactory);
+		factory.setTaskExecutor(virtualThreadExecutor("rabbit-"));
+		return factory;
+	}
+
+	@Bean
+	public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerContainerFactory(ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+			ObjectProvider<ConsumerFactory<Object, Object>> consumerFactory, KafkaProperties properties) {
+		ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+		configurer.configure(factory, consumerFactory.getIfAvailable(() -> new DefaultKafkaConsumerFactory<>(properties.buildConsumerProperties())));
+		factory.getContainerProperties().setConsumerTaskExecutor(virtualThreadExecutor("kafka-"));
+		return factory;
+	}
+
+	/* a thread per task, never pooled: virtual threads are cheap to start */
+	private static SimpleAsyncTaskExecutor virtualThreadExecutor(String prefix) {
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+		executor.setThreadFactory(VirtualThreads.threadFactory(prefix));
+		return executor;
+	}
+
+}
@@ -1,6 +1,12 @@
 package tacos.messaging;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
@@ -17,6 +23,9 @@ public class KafkaOrderMessagingService implements OrderMessagingService {
 
 	private KafkaTemplate<String, Order> kafkaTemplate;
 
+	@Value("${tacocloud.outbox.send-timeout:10000}")
+	private long sendTimeout;
+
 	@Autowired
 	public KafkaOrderMessagingService(KafkaTemplate<String, Order> kafkaTemplate) {
 		this.kafkaTemplate = kafkaTemplate;
@@ -34,9 +43,27 @@ public class KafkaOrderMessagingService implements OrderMessagingService {
 
 		/*
 		 * If you set your default topic to 'tacocloud.orders.topic' by setting the 'spring.kafka.template.default-topic' property (in the
-		 * application.yml file), you can simplify the sendOrder() method slightly
+		 * application.yml file), you can simplify the sendOrder() method slightly, with sendDefault(order) as below.
+		 *
+		 * send() and sendDefault() are asynchronous: they return before the broker has acknowledged the message, and a failure is only reported
+		 * through the returned future. The OrderOutboxRelay deletes an order from the outbox once sendOrder() returns, so sendOrder() waits for the
+		 * acknowledgment and fails if the message couldn’t be written, for the order to be sent again later.
+		 *
+		 * The wait is bounded by tacocloud.outbox.send-timeout, since the relay holds the locks of its outbox rows meanwhile: an unreachable broker
+		 * fails the send (and backs the relay off) instead of blocking it for the producer’s own delivery timeout. The producer’s max.block.ms is set
+		 * to the same value (see application.yml), which bounds sendDefault() itself while it waits for the metadata of the topic. A message that
+		 * times out here may still be written later, and then sent again by the relay, like any other duplicate.
 		 */
-		kafkaTemplate.sendDefault(order);
+		try {
+			kafkaTemplate.sendDefault(order).get(sendTimeout, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			throw new KafkaException("Timed out after " + sendTimeout + " ms while sending order " + order.getId(), e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new KafkaException("Interrupted while sending order " + order.getId(), e);
+		} catch (ExecutionException e) {
+			throw new KafkaException("Failed to send order " + order.getId(), e.getCause());
+		}
 	}
 
 }
@@ -48,6 +48,9 @@ public class RestExamples {
 			for (Ingredient ingredient : ingredients) {
 				log.info("   - " + ingredient);
 			}
+			log.info("GETTING INGREDIENT BY ID AS CBOR AND AS SMILE");
+			log.info("Ingredient:  " + tacoCloudClient.getIngredientById("CHED", TacoCloudClient.APPLICATION_CBOR));
+			log.info("Ingredient:  " + tacoCloudClient.getIngredientById("CHED", TacoCloudClient.APPLICATION_SMILE));
 		};
 	}
 
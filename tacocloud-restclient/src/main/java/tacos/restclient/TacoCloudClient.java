@@ -1,22 +1,31 @@
 package tacos.restclient;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.client.Traverson;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import tacos.Ingredient;
+import tacos.Order;
 import tacos.Taco;
 
 @Service
 //@Slf4j
 public class TacoCloudClient {
 
+	/* the binary formats the API can send and receive besides JSON (see BinaryFormatsConfig in tacocloud-api) */
+	public static final MediaType APPLICATION_CBOR = MediaType.APPLICATION_CBOR;
+	public static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
 	private RestTemplate rest;
 	private Traverson traverson;
 
@@ -89,6 +98,39 @@ public class TacoCloudClient {
 		}).getBody();
 	}
 
+	/*
+	 * Binary formats : for service-to-service calls, the API can also answer in CBOR or Smile, which are much cheaper to parse than JSON text. The
+	 * format is asked for with the Accept header, set on the HttpEntity handed to exchange(). There’s nothing else to configure: a RestTemplate
+	 * registers converters for both formats on its own when jackson-dataformat-cbor and jackson-dataformat-smile are on the class-path, and picks
+	 * the one matching the Content-type of the response.
+	 */
+	public Ingredient getIngredientById(String ingredientId, MediaType format) {
+		return rest.exchange("http://localhost:8080/ingredients/{id}", HttpMethod.GET, accepting(format), Ingredient.class, ingredientId).getBody();
+	}
+
+	public List<Ingredient> getAllIngredients(MediaType format) {
+		return rest.exchange("http://localhost:8080/ingredients", HttpMethod.GET, accepting(format), new ParameterizedTypeReference<List<Ingredient>>() {
+		}).getBody();
+	}
+
+	public Taco getTacoById(Long tacoId, MediaType format) {
+		return rest.exchange("http://localhost:8080/design/{id}", HttpMethod.GET, accepting(format), Taco.class, tacoId).getBody();
+	}
+
+	/* the order is sent in the same format as the one asked for the response, the Content-type tells the RestTemplate which converter writes it */
+	public Order createOrder(Order order, MediaType format) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(format);
+		headers.setAccept(Collections.singletonList(format));
+		return rest.exchange("http://localhost:8080/orders", HttpMethod.POST, new HttpEntity<>(order, headers), Order.class).getBody();
+	}
+
+	private static HttpEntity<Void> accepting(MediaType format) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(Collections.singletonList(format));
+		return new HttpEntity<>(headers);
+	}
+
 	/*
 	 * PUT examples : Suppose that you want to replace an ingredient resource with the data from a new Ingredient object
 	 */
@@ -0,0 +1,74 @@
+package tacos.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter of strings: mightContain() is false for a string that was never put(), and true for all those that were, as well as for a few
+ * others (about falsePositiveRate of them, as long as no more than expectedInsertions strings were put). It is sized as usual: m = -n ln(p) / ln(2)²
+ * bits and k = m / n ln(2) hash functions.
+ *
+ * The k bit positions are derived from a single 64-bit hash of the string (Kirsch and Mitzenmacher’s double hashing), so neither put() nor
+ * mightContain() allocates anything. The bits are set with a compare-and-set, so readers never lock, and a put() racing with another one is never
+ * lost.
+ */
+final class BloomFilter {
+
+	private final AtomicLongArray words;
+
+	private final long bitCount;
+
+	private final int hashCount;
+
+	BloomFilter(long expectedInsertions, double falsePositiveRate) {
+		long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		this.words = new AtomicLongArray((int) Math.max(1, (bits + 63) / 64));
+		this.bitCount = words.length() * 64L;
+		this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+	}
+
+	void put(CharSequence value) {
+		long hash = hash(value);
+		for (int i = 1; i <= hashCount; i++) {
+			long index = index(hash, i);
+			int word = (int) (index >>> 6);
+			long mask = 1L << index;
+			long current = words.get(word);
+			while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+				current = words.get(word);
+			}
+		}
+	}
+
+	boolean mightContain(CharSequence value) {
+		long hash = hash(value);
+		for (int i = 1; i <= hashCount; i++) {
+			long index = index(hash, i);
+			if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/* the i-th bit position: the low and high halves of the hash are the two hash functions combined as h1 + i * h2 */
+	private long index(long hash, int i) {
+		long combined = (int) hash + (long) i * (int) (hash >>> 32);
+		return (combined & Long.MAX_VALUE) % bitCount;
+	}
+
+	/* FNV-1a over the chars, whose bits are then spread by the finalizer of MurmurHash3 */
+	private static long hash(CharSequence value) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+}
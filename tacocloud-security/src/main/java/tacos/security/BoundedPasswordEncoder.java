@@ -0,0 +1,160 @@
+package tacos.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A BCryptPasswordEncoder whose hashing runs on a small pool of its own rather than on the request threads. BCrypt is slow on purpose, so a burst of
+ * logins (or registrations) hashing on Tomcat’s threads would use up all of them, and all of the processors, while the rest of the API waits.
+ *
+ * The pool has a fixed number of threads and a bounded queue: at most threads + queue-capacity requests are hashing or waiting to, and any request
+ * beyond them is turned down at once with a PasswordHashingBusyException (a 503, SERVICE UNAVAILABLE, see SecurityConfig), rather than queued for
+ * longer than its client would wait. The request thread still waits for its own hash, but no longer than the queue ahead of it.
+ *
+ * The strength (the log2 of the number of rounds) is picked at startup by calibrate(), as the highest one whose hash takes no longer than the target
+ * time on the current hardware. Since every BCrypt hash carries its own strength, the passwords hashed with another one still match.
+ *
+ * The time spent hashing and the time spent waiting in the queue are reported as the tacocloud.passwords.hashing and
+ * tacocloud.passwords.hashing.wait timers (tagged with operation=encode or matches), with their percentile histograms, the rejected requests as the
+ * tacocloud.passwords.hashing.rejected counter, and the number of waiting ones as the tacocloud.passwords.hashing.queue gauge.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+	private static final String CALIBRATION_PASSWORD = "aA@00000";
+
+	private final BCryptPasswordEncoder delegate;
+
+	private final ThreadPoolExecutor executor;
+
+	private final Operation encode;
+	private final Operation matches;
+	private final Counter rejected;
+
+	public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, MeterRegistry registry) {
+		this.delegate = new BCryptPasswordEncoder(strength);
+		AtomicInteger threadCount = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), task -> {
+			Thread thread = new Thread(task, "password-hashing-" + threadCount.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}, new ThreadPoolExecutor.AbortPolicy());
+
+		this.encode = new Operation("encode", registry);
+		this.matches = new Operation("matches", registry);
+		this.rejected = Counter.builder("tacocloud.passwords.hashing.rejected").description("The hashings turned down because the queue was full")
+				.register(registry);
+		Gauge.builder("tacocloud.passwords.hashing.queue", executor, pool -> pool.getQueue().size()).register(registry);
+		Gauge.builder("tacocloud.passwords.hashing.strength", () -> strength).register(registry);
+	}
+
+	/*
+	 * The highest strength, from minStrength up to maxStrength, whose hash takes no longer than targetMillis: each step doubles the time, so the next
+	 * one is only tried while twice the last time still fits. The whole calibration takes about twice the time of the strength it picks.
+	 */
+	public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+		if (minStrength >= maxStrength) {
+			return minStrength;
+		}
+		/* the first hash also loads and compiles BCrypt, so it isn't timed */
+		new BCryptPasswordEncoder(minStrength).encode(CALIBRATION_PASSWORD);
+		int strength = minStrength;
+		long millis = hashMillis(strength);
+		while (strength < maxStrength && millis * 2 <= targetMillis) {
+			strength++;
+			millis = hashMillis(strength);
+		}
+		log.info("BCrypt strength {} hashes a password in {} ms (target {} ms)", strength, millis, targetMillis);
+		return strength;
+	}
+
+	private static long hashMillis(int strength) {
+		BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+		long start = System.nanoTime();
+		encoder.encode(CALIBRATION_PASSWORD);
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return hash(encode, () -> delegate.encode(rawPassword));
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return hash(matches, () -> delegate.matches(rawPassword, encodedPassword));
+	}
+
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		return delegate.upgradeEncoding(encodedPassword);
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	private <T> T hash(Operation operation, Callable<T> hashing) {
+		long submitted = System.nanoTime();
+		Future<T> future;
+		try {
+			future = executor.submit(() -> {
+				operation.wait.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+				return operation.hashing.recordCallable(hashing);
+			});
+		} catch (RejectedExecutionException e) {
+			rejected.increment();
+			throw new PasswordHashingBusyException("Too many passwords are being hashed, try again later", e);
+		}
+
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new PasswordHashingBusyException("Interrupted while waiting for a password to be hashed", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("Can't hash the password", cause);
+		}
+	}
+
+	private static class Operation {
+
+		private final Timer hashing;
+
+		private final Timer wait;
+
+		private Operation(String name, MeterRegistry registry) {
+			this.hashing = Timer.builder("tacocloud.passwords.hashing").tag("operation", name).description("The time spent hashing passwords")
+					.publishPercentileHistogram().register(registry);
+			this.wait = Timer.builder("tacocloud.passwords.hashing.wait").tag("operation", name)
+					.description("The time passwords wait in the queue before they are hashed").publishPercentileHistogram().register(registry);
+		}
+
+	}
+
+}
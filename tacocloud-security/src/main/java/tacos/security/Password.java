@@ -0,0 +1,31 @@
+package tacos.security;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+
+/**
+ * A password of RegistrationFormat: at least 8 chars long, with a digit, a lower case letter, an upper case letter and one of @#$%^&+=, and no
+ * whitespace. Like @Pattern, a null password is valid. See PasswordValidator.
+ */
+@Documented
+@Constraint(validatedBy = PasswordValidator.class)
+@Target({ FIELD, PARAMETER })
+@Retention(RUNTIME)
+public @interface Password {
+
+	String message() default "Password must be at least 8 chars long, contains at least one digit, one lower alpha char, one upper alpha char, "
+			+ "one special char, and not contains whitespace";
+
+	Class<?>[] groups() default {};
+
+	Class<? extends Payload>[] payload() default {};
+
+}
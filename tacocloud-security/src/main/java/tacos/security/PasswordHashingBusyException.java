@@ -0,0 +1,21 @@
+package tacos.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown by BoundedPasswordEncoder when its queue is full. It is an AuthenticationException, so that a login turned down reaches the failure
+ * handler of the login form (see SecurityConfig) rather than failing with a 500, and a registration turned down is answered with a 503 (SERVICE
+ * UNAVAILABLE) by Spring MVC.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+
+	private static final long serialVersionUID = 1L;
+
+	public PasswordHashingBusyException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
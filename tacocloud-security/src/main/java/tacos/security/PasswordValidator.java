@@ -0,0 +1,68 @@
+package tacos.security;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+/**
+ * Checks a @Password in a single pass over its chars, without allocating anything. It accepts the very same passwords as the regular expression
+ * RegistrationFormat used before,
+ *
+ * ^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=])(?=\S+$).{8,}$
+ *
+ * whose five lookaheads each scanned the whole password (so a long password was read six times), down to its corner cases: the line terminators
+ * that '.' doesn’t match are refused along with the whitespace of \s, and the length is counted in code points, like '.' counts them.
+ */
+public class PasswordValidator implements ConstraintValidator<Password, CharSequence> {
+
+	private static final int MIN_LENGTH = 8;
+
+	@Override
+	public boolean isValid(CharSequence password, ConstraintValidatorContext context) {
+		if (password == null) {
+			return true;
+		}
+		boolean digit = false;
+		boolean lowerCase = false;
+		boolean upperCase = false;
+		boolean special = false;
+		int codePoints = 0;
+		for (int i = 0; i < password.length(); i++) {
+			char c = password.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digit = true;
+			} else if (c >= 'a' && c <= 'z') {
+				lowerCase = true;
+			} else if (c >= 'A' && c <= 'Z') {
+				upperCase = true;
+			} else if (c == '@' || c == '#' || c == '$' || c == '%' || c == '^' || c == '&' || c == '+' || c == '=') {
+				special = true;
+			} else if (isWhitespaceOrLineTerminator(c)) {
+				return false;
+			}
+			/* the low surrogate of a pair is the second half of the same code point */
+			if (!(Character.isLowSurrogate(c) && i > 0 && Character.isHighSurrogate(password.charAt(i - 1)))) {
+				codePoints++;
+			}
+		}
+		return digit && lowerCase && upperCase && special && codePoints >= MIN_LENGTH;
+	}
+
+	/* [ \t\n\x0B\f\r] (\s), and the other line terminators '.' doesn't match: next line, line separator and paragraph separator */
+	private static boolean isWhitespaceOrLineTerminator(char c) {
+		switch (c) {
+		case ' ':
+		case '\t':
+		case '\n':
+		case '\u000B':
+		case '\f':
+		case '\r':
+		case '\u0085':
+		case '\u2028':
+		case '\u2029':
+			return true;
+		default:
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,30 @@
+package tacos.security;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+
+/**
+ * A phone number of RegistrationFormat: 10 to 15 digits, the first of which isn’t 0. Like @Pattern, a null phone number is valid. See
+ * PhoneNumberValidator.
+ */
+@Documented
+@Constraint(validatedBy = PhoneNumberValidator.class)
+@Target({ FIELD, PARAMETER })
+@Retention(RUNTIME)
+public @interface PhoneNumber {
+
+	String message() default "Phone number must be 10 to 15 digits and not start with 0";
+
+	Class<?>[] groups() default {};
+
+	Class<? extends Payload>[] payload() default {};
+
+}
@@ -0,0 +1,72 @@
+package tacos.security;
+
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import tacos.data.UserRepository;
+
+/**
+ * Tells whether a username is already taken, for the availability check of the registration form (see RegistrationController), which is called as
+ * the username is typed. Most of the usernames typed are free, so rather than querying the user table for each of them, the usernames are kept in a
+ * Bloom filter (see BloomFilter): a username the filter has never seen is free, and only the few others (the taken ones, and about one percent of
+ * the free ones) are looked up by the unique index of the username column (see User).
+ *
+ * The filter is loaded from the user table once the application is ready (after the data loader of DevelopmentConfig has run), and every username
+ * registered afterwards is put in it (see RegistrationController and UserCacheEventHandler). It is published before it is loaded, so that no
+ * registration made while it loads is missed, but it is only trusted once loaded: until then, every check is a query. A Bloom filter can’t forget,
+ * so the usernames of the deleted users stay in it, which only costs them a query.
+ *
+ * It is sized for tacocloud.users.expected-count usernames: beyond them it still never answers that a taken username is free, but the share of free
+ * usernames that are queried grows.
+ */
+@Slf4j
+@Service
+public class RegisteredUsernames {
+
+	private UserRepository userRepo;
+	private TransactionTemplate transactionTemplate;
+
+	private final BloomFilter filter;
+
+	private volatile boolean loaded;
+
+	public RegisteredUsernames(UserRepository userRepo, TransactionTemplate transactionTemplate,
+			@Value("${tacocloud.users.expected-count:100000}") long expectedCount,
+			@Value("${tacocloud.users.false-positive-rate:0.01}") double falsePositiveRate) {
+		this.userRepo = userRepo;
+		this.transactionTemplate = transactionTemplate;
+		this.filter = new BloomFilter(expectedCount, falsePositiveRate);
+	}
+
+	public boolean isTaken(String username) {
+		if (loaded && !filter.mightContain(username)) {
+			return false;
+		}
+		return userRepo.existsByUsername(username);
+	}
+
+	public void add(String username) {
+		filter.put(username);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		long count = transactionTemplate.execute(status -> {
+			try (Stream<String> usernames = userRepo.streamUsernames()) {
+				return usernames.mapToLong(username -> {
+					filter.put(username);
+					return 1;
+				}).sum();
+			}
+		});
+		loaded = true;
+		log.info("Loaded {} usernames in the registration Bloom filter", count);
+	}
+
+}
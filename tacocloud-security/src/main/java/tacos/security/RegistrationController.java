@@ -1,7 +1,13 @@
 package tacos.security;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import javax.validation.Valid;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.Errors;
@@ -9,6 +15,8 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
 import tacos.data.UserRepository;
 
@@ -20,16 +28,23 @@ import tacos.data.UserRepository;
 @RequestMapping("/register")
 public class RegistrationController {
 
+	private static final String USERNAME_TAKEN = "Username is already taken";
+
 	/*
 	 * inject UserRepository and PasswordEncoder for the processRegistration() method below. This is PasswordEncoder bean you declared before in
 	 * SecurityConfig class
 	 */
 	private UserRepository userRepo;
 	private PasswordEncoder passwordEncoder;
+	private UserRepositoryUserDetailsService userDetailsService;
+	private RegisteredUsernames registeredUsernames;
 
-	public RegistrationController(UserRepository userRepo, PasswordEncoder passwordEncoder) {
+	public RegistrationController(UserRepository userRepo, PasswordEncoder passwordEncoder, UserRepositoryUserDetailsService userDetailsService,
+			RegisteredUsernames registeredUsernames) {
 		this.userRepo = userRepo;
 		this.passwordEncoder = passwordEncoder;
+		this.userDetailsService = userDetailsService;
+		this.registeredUsernames = registeredUsernames;
 	}
 
 	@ModelAttribute(name = "reg") // see '<form method="POST" th:object="${reg}" th:action="@{/register}" id="registerForm">' in registration.html
@@ -42,14 +57,43 @@ public class RegistrationController {
 		return "registration";
 	}
 
+	/*
+	 * The live check of the registration form, as the username is typed: {"username": ..., "available": true|false}. Most of the answers come from
+	 * the Bloom filter of RegisteredUsernames, without a query.
+	 */
+	@GetMapping(path = "/availability", produces = "application/json")
+	@ResponseBody
+	public ResponseEntity<Map<String, Object>> usernameAvailability(@RequestParam("username") String username) {
+		if (username.trim().isEmpty()) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+		Map<String, Object> availability = new LinkedHashMap<>();
+		availability.put("username", username);
+		availability.put("available", !registeredUsernames.isTaken(username));
+		return ResponseEntity.ok(availability);
+	}
+
 	@PostMapping
 	public String processRegistration(@Valid @ModelAttribute("reg") RegistrationFormat regModel, Errors errors) {
 
+		/* checked before the password is hashed, which is the slow part of the registration */
+		if (!errors.hasFieldErrors("username") && registeredUsernames.isTaken(regModel.getUsername())) {
+			errors.rejectValue("username", "taken", USERNAME_TAKEN);
+		}
 		if (errors.hasErrors()) {
 			return "registration";
 		}
 
-		userRepo.save(regModel.toUser(passwordEncoder));
+		try {
+			userRepo.save(regModel.toUser(passwordEncoder));
+		} catch (DataIntegrityViolationException e) {
+			/* another registration took the username since it was checked, and the unique index of the username column turned this one down */
+			errors.rejectValue("username", "taken", USERNAME_TAKEN);
+			return "registration";
+		}
+		registeredUsernames.add(regModel.getUsername());
+		/* a login attempted with this username before it was registered left it in the cache as unknown */
+		userDetailsService.evict(regModel.getUsername());
 		return "redirect:/login";
 	}
 
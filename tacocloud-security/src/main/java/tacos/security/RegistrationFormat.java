@@ -1,7 +1,6 @@
 package tacos.security;
 
 import javax.validation.constraints.NotBlank;
-import javax.validation.constraints.Pattern;
 
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -11,46 +10,19 @@ import tacos.User;
 @Data
 public class RegistrationFormat {
 
-	@Pattern(regexp = "^"
-
-			+ "(?=.{8,20}$)"// at least 8-20 characters long
-
-			+ "(?![_.])" // no _ or . at the beginning
-
-			+ "(?!.*[_.]{2})" // no __ or _. or ._ or .. inside
-
-			+ "[a-zA-Z0-9._]+" // allowed characters, underscores, and dots
-
-			+ "(?<![_.])" // no _ or . at the end
-
-			+ "$",
-
-			message = "Username must be 8 to 20 chars long; alphanumeric chars, underscore and dot are allowed; "
-					+ "underscore and dot can not be at the end or start of a username or next to each other, or used multiple times in a row")
+	/*
+	 * The username, password and phone number used to be checked with @Pattern, by regular expressions whose lookaheads scanned the input once for
+	 * each rule. @Username, @Password and @PhoneNumber check the very same rules in one pass (see UsernameValidator, PasswordValidator and
+	 * PhoneNumberValidator), with the same messages.
+	 */
+	@Username
 	private String username;
 	/*
 	 * Avoid writing apostrophes ' in error message, because, for example, "can't" will be lost the apostrophe ' when it passed to Thymeleaf for
 	 * rendering error message, so the test will fail.
 	 */
 
-	@Pattern(regexp = "^"
-
-			+ "(?=.*[0-9])" // a digit must occur at least once
-
-			+ "(?=.*[a-z])" // a lower case letter must occur at least once
-
-			+ "(?=.*[A-Z])" // an upper case letter must occur at least once
-
-			+ "(?=.*[@#$%^&+=])" // a special character must occur at least once
-
-			+ "(?=\\S+$)" // no whitespace allowed in the entire string
-
-			+ ".{8,}" // at least 8 chars long
-
-			+ "$",
-
-			message = "Password must be at least 8 chars long, contains at least one digit, one lower alpha char, one upper alpha char, "
-					+ "one special char, and not contains whitespace")
+	@Password
 	private String password;
 
 	@NotBlank(message = "The password confirmation does not match")
@@ -62,9 +34,8 @@ public class RegistrationFormat {
 	private String state;
 	private String zip;
 
-	@Pattern(regexp = "^[1-9][0-9]{9,14}$", message = "Phone number must be 10 to 15 digits and not start with 0")
+	@PhoneNumber
 	private String phone;
-	/* [1-9] : start number != 0; [0-9]{9,14} : the 9->14 next numbers can be in [0-9] */
 
 	public User toUser(PasswordEncoder passwordEncoder) {
 		return new User(username, passwordEncoder.encode(password), fullname, street, city, state, zip, phone);
@@ -1,16 +1,25 @@
 package tacos.security;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 /** @Configuration annotation designates this class as a configuration class. */
 @SuppressWarnings("deprecation")
@@ -26,6 +35,28 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 	@Autowired
 	private UserDetailsService userDetailsService;
 
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private TokenService tokenService;
+
+	/* 0 leaves half of the processors to the requests that don't hash passwords */
+	@Value("${tacocloud.security.hashing.threads:0}")
+	private int hashingThreads;
+
+	@Value("${tacocloud.security.hashing.queue-capacity:32}")
+	private int hashingQueueCapacity;
+
+	@Value("${tacocloud.security.hashing.target-time:250}")
+	private long hashingTargetTime;
+
+	@Value("${tacocloud.security.hashing.min-strength:10}")
+	private int hashingMinStrength;
+
+	@Value("${tacocloud.security.hashing.max-strength:16}")
+	private int hashingMaxStrength;
+
 	/*
 	 * As with JDBC-based authentication, you can (and should) also configure a password encoder so that the password can be encoded in the database.
 	 * You’ll do this by first declaring a bean of type BCryptPasswordEncoder and then injecting it into your user details service configuration by
@@ -33,16 +64,33 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 	 */
 	@Bean
 	public PasswordEncoder encoder() {
-		return new BCryptPasswordEncoder();
+		int strength = BoundedPasswordEncoder.calibrate(hashingTargetTime, hashingMinStrength, hashingMaxStrength);
+		int threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		return new BoundedPasswordEncoder(strength, threads, hashingQueueCapacity, meterRegistry);
 		/**
 		 * because the encoder() method is annotated with @Bean, it will be used to declare a PasswordEncoder bean in the Spring application context.
 		 * Any calls to encoder() will then be intercepted to return the bean instance from the application context.
 		 *
 		 * StandardPasswordEncoder is deprecated. Because it uses digest based password encoding and that is not considered secure. If you are
 		 * developing a new system, BCryptPasswordEncoder is a better choice both in terms of security and interoperability with other languages.
+		 *
+		 * The BCryptPasswordEncoder is wrapped in a BoundedPasswordEncoder, which hashes on a pool of its own, with a strength calibrated at startup.
 		 */
 	}
 
+	/* a login turned down by BoundedPasswordEncoder is answered with a 503 (SERVICE UNAVAILABLE), not as a wrong password */
+	private AuthenticationFailureHandler loginFailureHandler() {
+		SimpleUrlAuthenticationFailureHandler wrongCredentials = new SimpleUrlAuthenticationFailureHandler("/login?error");
+		return (request, response, exception) -> {
+			if (exception instanceof PasswordHashingBusyException) {
+				response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+				response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, exception.getMessage());
+			} else {
+				wrongCredentials.onAuthenticationFailure(request, response, exception);
+			}
+		};
+	}
+
 	/* This method will be invoked every time you login. */
 	@Override
 	protected void configure(AuthenticationManagerBuilder auth) throws Exception {
@@ -51,6 +99,13 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 				.passwordEncoder(encoder());
 	}
 
+	/* the AuthenticationManager configured above, as a bean, for the logins of the stateless API (see TokenController) */
+	@Bean
+	@Override
+	public AuthenticationManager authenticationManagerBean() throws Exception {
+		return super.authenticationManagerBean();
+	}
+
 	/* Intercepting requests to ensure that the user has proper authority is one of the most common things you’ll configure HttpSecurity to do. */
 	@Override
 	protected void configure(HttpSecurity http) throws Exception {
@@ -85,7 +140,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 				 * need to provide a controller that handles requests at this path. Because your login page will be fairly simple (nothing but a view)
 				 * it’s easy enough to declare it as a view controller in WebConfig. (see WebConfig)
 				 */
-				.and().formLogin().loginPage("/login")
+				.and().formLogin().loginPage("/login").failureHandler(loginFailureHandler())
 
 				/*
 				 * By default, Spring Security listens for login requests at /login and expects that the username and password fields be named
@@ -108,9 +163,15 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 				.and().logout().logoutSuccessUrl("/")
 
 				/* Make H2-Console non-secured; for debug purposes */
-				.and().csrf().ignoringAntMatchers("/h2-console/**", "/ingredients/**", "/design", "/orders/**")
+				.and().csrf().ignoringAntMatchers("/h2-console/**", "/ingredients/**", "/design", "/orders/**", "/tokens")
 
 				/* Allow pages to be loaded in frames from the same origin; needed for H2-Console */
 				.and().headers().frameOptions().sameOrigin();
+
+		/*
+		 * Alongside the sessions of the login form, the requests can be authenticated by a bearer token (see TokenController), checked in memory
+		 * without a session, so that the API scales out without sticky sessions.
+		 */
+		http.addFilterBefore(new TokenAuthenticationFilter(tokenService), UsernamePasswordAuthenticationFilter.class);
 	}
 }
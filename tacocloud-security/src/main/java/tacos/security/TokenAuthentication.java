@@ -0,0 +1,41 @@
+package tacos.security;
+
+import java.util.Collections;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.Transient;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import tacos.User;
+
+/**
+ * The authentication of a request that came with a valid bearer token (see TokenService). It is @Transient, so Spring Security never saves it in the
+ * HTTP session: a request authenticated with a token doesn’t create one.
+ */
+@Transient
+public class TokenAuthentication extends AbstractAuthenticationToken {
+
+	private static final long serialVersionUID = 1L;
+
+	private final User user;
+
+	private final String token;
+
+	public TokenAuthentication(User user, String token) {
+		super(Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+		this.user = user;
+		this.token = token;
+		setAuthenticated(true);
+	}
+
+	@Override
+	public Object getCredentials() {
+		return token;
+	}
+
+	@Override
+	public User getPrincipal() {
+		return user;
+	}
+
+}
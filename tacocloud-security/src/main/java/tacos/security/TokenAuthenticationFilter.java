@@ -0,0 +1,59 @@
+package tacos.security;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Authenticates the requests that come with an Authorization: Bearer header, with the token TokenController issued. A request without the header
+ * goes on as before (with the session of the login form, if it has one); a request whose token is invalid or expired is answered with a 401
+ * (UNAUTHORIZED) at once, rather than served as an anonymous one.
+ *
+ * It isn’t a @Component, which Spring Boot would also register as a servlet filter outside of the security filter chain (see SecurityConfig).
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+	private static final String BEARER = "Bearer ";
+
+	private TokenService tokenService;
+
+	public TokenAuthenticationFilter(TokenService tokenService) {
+		this.tokenService = tokenService;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+		if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		TokenAuthentication authentication = tokenService.authenticate(authorization.substring(BEARER.length()).trim());
+		if (authentication == null) {
+			response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+			response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+			return;
+		}
+		/* the context of the session (if any) is put back afterwards, rather than cleared, which would log the session out when it is saved */
+		SecurityContext sessionContext = SecurityContextHolder.getContext();
+		SecurityContext context = SecurityContextHolder.createEmptyContext();
+		context.setAuthentication(authentication);
+		SecurityContextHolder.setContext(context);
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			SecurityContextHolder.setContext(sessionContext);
+		}
+	}
+
+}
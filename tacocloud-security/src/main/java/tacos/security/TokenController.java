@@ -0,0 +1,59 @@
+package tacos.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import tacos.User;
+
+/**
+ * The login of the stateless API: a POST of the same username and password as the login form answers with a bearer token (see TokenService), to be
+ * sent in the Authorization header of the next requests, instead of a session cookie. The password is checked like that of the login form (through
+ * the AuthenticationManager of SecurityConfig), but no session is created.
+ *
+ * The response follows that of an OAuth 2.0 token end-point: access_token, token_type and expires_in (in seconds), and must not be cached.
+ */
+@RestController
+@RequestMapping(path = "/tokens", produces = "application/json")
+public class TokenController {
+
+	private AuthenticationManager authenticationManager;
+	private TokenService tokenService;
+
+	public TokenController(AuthenticationManager authenticationManager, TokenService tokenService) {
+		this.authenticationManager = authenticationManager;
+		this.tokenService = tokenService;
+	}
+
+	/* 401 (UNAUTHORIZED) for wrong credentials, and 503 (SERVICE UNAVAILABLE) when too many passwords are being hashed (see BoundedPasswordEncoder) */
+	@PostMapping
+	public ResponseEntity<Map<String, Object>> issueToken(@RequestParam("username") String username, @RequestParam("password") String password) {
+		Authentication authentication;
+		try {
+			authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
+		} catch (PasswordHashingBusyException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+		} catch (AuthenticationException e) {
+			return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+		}
+
+		Map<String, Object> token = new LinkedHashMap<>();
+		token.put("access_token", tokenService.issue((User) authentication.getPrincipal()));
+		token.put("token_type", "Bearer");
+		token.put("expires_in", tokenService.getTtl() / 1000);
+		return ResponseEntity.ok().cacheControl(CacheControl.noStore()).header(HttpHeaders.PRAGMA, "no-cache").body(token);
+	}
+
+}
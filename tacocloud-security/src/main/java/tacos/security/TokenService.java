@@ -0,0 +1,161 @@
+package tacos.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import lombok.extern.slf4j.Slf4j;
+import tacos.User;
+
+/**
+ * Issues and checks the short-lived bearer tokens of the stateless API (see TokenController and TokenAuthenticationFilter). A token is a JSON Web
+ * Token signed with HMAC-SHA256: its claims are the username (sub), the id of the user (uid), and the time it was issued (iat) and expires (exp),
+ * in seconds. Checking one is a signature and an expiry check in memory: neither the repository nor a session is involved, so any instance sharing
+ * the keys accepts the tokens of all the others, and no sticky session is needed.
+ *
+ * The keys are configured as tacocloud.security.tokens.keys, a list of id:secret pairs (the secret in Base64, of at least 32 bytes). New tokens are
+ * signed with the first key and carry its id (kid); a token is accepted if it is signed with any of the keys. To rotate the keys, a new key is put
+ * first, and the former one is removed once the last tokens it signed expired (ttl milliseconds later). Without any key, a random one is generated,
+ * and the tokens are only good for this instance until it restarts.
+ *
+ * Since the user isn’t loaded, a token can’t be revoked before it expires: its ttl is kept short (15 minutes by default), and the client logs in
+ * again to get a new one.
+ */
+@Slf4j
+@Component
+public class TokenService {
+
+	private static final String ALGORITHM = "HmacSHA256";
+
+	private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder BASE64URL_DECODER = Base64.getUrlDecoder();
+
+	private static final int MIN_SECRET_LENGTH = 32;
+
+	/* the clocks of the instances that issue and check a token may differ by that much */
+	private static final long CLOCK_SKEW = 30;
+
+	private final ObjectMapper objectMapper;
+
+	/* the key id of each Mac, the first one signs; a Mac isn't thread safe, so each use works on a clone of it */
+	private final Map<String, Mac> keys = new LinkedHashMap<>();
+
+	private final String signingKeyId;
+
+	private final long ttl;
+
+	public TokenService(ObjectMapper objectMapper, @Value("${tacocloud.security.tokens.keys:}") String[] keys,
+			@Value("${tacocloud.security.tokens.ttl:900000}") long ttl) {
+		this.objectMapper = objectMapper;
+		this.ttl = ttl;
+		for (String key : keys) {
+			if (!StringUtils.hasText(key)) {
+				continue;
+			}
+			String[] parts = key.trim().split(":", 2);
+			if (parts.length != 2 || !StringUtils.hasText(parts[0])) {
+				throw new IllegalStateException("A token key must be given as id:secret");
+			}
+			this.keys.put(parts[0], mac(Base64.getDecoder().decode(parts[1])));
+		}
+		if (this.keys.isEmpty()) {
+			log.warn("No tacocloud.security.tokens.keys: tokens are signed with a random key, and only this instance accepts them until it restarts");
+			byte[] secret = new byte[MIN_SECRET_LENGTH];
+			new SecureRandom().nextBytes(secret);
+			this.keys.put("generated", mac(secret));
+		}
+		this.signingKeyId = this.keys.keySet().iterator().next();
+	}
+
+	/* the time a token is valid, in milliseconds */
+	public long getTtl() {
+		return ttl;
+	}
+
+	public String issue(User user) {
+		long now = System.currentTimeMillis() / 1000;
+		ObjectNode header = objectMapper.createObjectNode().put("alg", "HS256").put("typ", "JWT").put("kid", signingKeyId);
+		ObjectNode claims = objectMapper.createObjectNode().put("sub", user.getUsername()).put("uid", user.getId()).put("iat", now).put("exp",
+				now + ttl / 1000);
+		String signed = encode(header) + "." + encode(claims);
+		return signed + "." + BASE64URL.encodeToString(sign(keys.get(signingKeyId), signed));
+	}
+
+	/* the authentication carried by the token, or null if it isn't well-formed, isn't signed with one of the keys, or expired */
+	public TokenAuthentication authenticate(String token) {
+		String[] parts = token.split("\\.");
+		if (parts.length != 3) {
+			return null;
+		}
+		try {
+			JsonNode header = objectMapper.readTree(BASE64URL_DECODER.decode(parts[0]));
+			Mac key = keys.get(header.path("kid").asText());
+			if (key == null || !"HS256".equals(header.path("alg").asText())) {
+				return null;
+			}
+			byte[] signature = sign(key, parts[0] + "." + parts[1]);
+			if (!MessageDigest.isEqual(signature, BASE64URL_DECODER.decode(parts[2]))) {
+				return null;
+			}
+
+			JsonNode claims = objectMapper.readTree(BASE64URL_DECODER.decode(parts[1]));
+			if (claims.path("exp").asLong() + CLOCK_SKEW < System.currentTimeMillis() / 1000 || !claims.path("sub").isTextual()
+					|| !claims.path("uid").canConvertToLong()) {
+				return null;
+			}
+			/* the principal is a User holding the claims only, enough to look up the orders of the user (see OrderController) */
+			User user = new User(claims.get("sub").asText(), null, null, null, null, null, null, null);
+			user.setId(claims.get("uid").asLong());
+			return new TokenAuthentication(user, token);
+		} catch (IllegalArgumentException | IOException e) {
+			return null;
+		}
+	}
+
+	private String encode(JsonNode node) {
+		try {
+			return BASE64URL.encodeToString(objectMapper.writeValueAsBytes(node));
+		} catch (IOException e) {
+			throw new IllegalStateException("Can't serialize " + node, e);
+		}
+	}
+
+	private static byte[] sign(Mac key, String signed) {
+		try {
+			return ((Mac) key.clone()).doFinal(signed.getBytes(StandardCharsets.US_ASCII));
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Mac mac(byte[] secret) {
+		if (secret.length < MIN_SECRET_LENGTH) {
+			throw new IllegalStateException("A token key must be at least " + MIN_SECRET_LENGTH + " bytes long");
+		}
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(new SecretKeySpec(secret, ALGORITHM));
+			return mac;
+		} catch (NoSuchAlgorithmException | InvalidKeyException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,44 @@
+package tacos.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.core.annotation.HandleAfterCreate;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.stereotype.Component;
+
+import tacos.User;
+
+/**
+ * Spring Data REST exposes UserRepository under /api/users, and its writes go straight to the repository. This handler listens to the events Spring
+ * Data REST publishes after each write and evicts the user from the cache of UserRepositoryUserDetailsService, so that the next login sees the
+ * change (a new password, or a deleted user) right away, and puts the new usernames in the Bloom filter of RegisteredUsernames.
+ */
+@Component
+@RepositoryEventHandler(User.class)
+public class UserCacheEventHandler {
+
+	private UserRepositoryUserDetailsService userDetailsService;
+	private RegisteredUsernames registeredUsernames;
+
+	@Autowired
+	public UserCacheEventHandler(UserRepositoryUserDetailsService userDetailsService, RegisteredUsernames registeredUsernames) {
+		this.userDetailsService = userDetailsService;
+		this.registeredUsernames = registeredUsernames;
+	}
+
+	@HandleAfterCreate
+	@HandleAfterSave
+	@HandleAfterDelete
+	public void evictUser(User user) {
+		userDetailsService.evict(user);
+	}
+
+	/* a user created or renamed through /api/users has a username the Bloom filter of RegisteredUsernames must know */
+	@HandleAfterCreate
+	@HandleAfterSave
+	public void registerUsername(User user) {
+		registeredUsernames.add(user.getUsername());
+	}
+
+}
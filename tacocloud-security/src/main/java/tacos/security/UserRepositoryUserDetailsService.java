@@ -1,11 +1,19 @@
 package tacos.security;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import tacos.User;
 import tacos.data.UserRepository;
 
@@ -18,25 +26,121 @@ import tacos.data.UserRepository;
  * been @Autowired into SecurityConfig (in the implementation of configure(AuthenticationManagerBuilder) method). Because UserDetailsService is an
  * interface, it needs to be implemented. When you pass UserDetailsService instance into the userDetailsService() method in the SecurityConfig class,
  * you actually pass this implementation.
+ *
+ * Every login looks its user up, so the users are cached rather than queried each time: in a LinkedHashMap in access order, bounded to max-size
+ * entries (the least recently used is dropped first), each of them expiring ttl milliseconds after it was loaded. An unknown username is cached as
+ * well, so that repeated attempts with it don’t reach the database either. The entry of a user is evicted whenever the user is written through the
+ * application (see RegistrationController and UserCacheEventHandler); a write made behind its back is seen once the entry expires.
+ *
+ * The lookups are reported as the cache.gets metric (tagged with cache=users and result=hit or miss), the time spent loading the users from the
+ * repository as the cache.loads timer, and the number of entries as the cache.size gauge.
  */
 @Service
 public class UserRepositoryUserDetailsService implements UserDetailsService {
 
+	private static final String CACHE_NAME = "users";
+
 	/* inject an instance of UserRepository for the loadUserByUsername() method to call findByUsername() on the UserRepository to look up a User. */
 	private UserRepository userRepo;
 
+	@Value("${tacocloud.users.cache.max-size:10000}")
+	private int maxSize;
+
+	@Value("${tacocloud.users.cache.ttl:300000}")
+	private long ttl;
+
+	/* guarded by its own monitor, which is only held for map operations: the user is looked up in the repository outside of it */
+	private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			return size() > maxSize;
+		}
+	};
+
+	private final Counter hits;
+	private final Counter misses;
+	private final Timer loads;
+
 	@Autowired
-	public UserRepositoryUserDetailsService(UserRepository userRepo) {
+	public UserRepositoryUserDetailsService(UserRepository userRepo, MeterRegistry registry) {
 		this.userRepo = userRepo;
+		this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").register(registry);
+		this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").register(registry);
+		this.loads = Timer.builder("cache.loads").tag("cache", CACHE_NAME).description("The time spent loading users from the repository")
+				.register(registry);
+		Gauge.builder("cache.size", this, UserRepositoryUserDetailsService::size).tag("cache", CACHE_NAME).register(registry);
 	}
 
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-		User user = userRepo.findByUsername(username);
-		if (user != null) {
-			return user;
+		Entry entry = get(username);
+		if (entry != null) {
+			hits.increment();
+		} else {
+			misses.increment();
+			entry = new Entry(loads.record(() -> userRepo.findByUsername(username)));
+			put(username, entry);
+		}
+
+		if (entry.user != null) {
+			return entry.user;
 		}
 		throw new UsernameNotFoundException("User '" + username + "' not found");
 	}
 
+	/* forgets the user with the given username, once it has been created, updated or deleted */
+	public void evict(String username) {
+		synchronized (entries) {
+			entries.remove(username);
+		}
+	}
+
+	/* also forgets the user under its former username, if the update renamed it */
+	public void evict(User user) {
+		synchronized (entries) {
+			entries.remove(user.getUsername());
+			if (user.getId() != null) {
+				entries.values().removeIf(entry -> entry.user != null && user.getId().equals(entry.user.getId()));
+			}
+		}
+	}
+
+	private Entry get(String username) {
+		synchronized (entries) {
+			Entry entry = entries.get(username);
+			if (entry != null && entry.loadedAt + ttl < System.currentTimeMillis()) {
+				entries.remove(username);
+				return null;
+			}
+			return entry;
+		}
+	}
+
+	private void put(String username, Entry entry) {
+		synchronized (entries) {
+			entries.put(username, entry);
+		}
+	}
+
+	private int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/* the user is null for an unknown username */
+	private static class Entry {
+
+		private final User user;
+
+		private final long loadedAt = System.currentTimeMillis();
+
+		private Entry(User user) {
+			this.user = user;
+		}
+
+	}
+
 }
@@ -0,0 +1,31 @@
+package tacos.security;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+
+/**
+ * A username of RegistrationFormat: 8 to 20 letters (a to z, A to Z), digits, underscores and dots, which doesn’t start or end with an underscore or
+ * a dot, and has no two of them in a row. Like @Pattern, a null username is valid. See UsernameValidator.
+ */
+@Documented
+@Constraint(validatedBy = UsernameValidator.class)
+@Target({ FIELD, PARAMETER })
+@Retention(RUNTIME)
+public @interface Username {
+
+	String message() default "Username must be 8 to 20 chars long; alphanumeric chars, underscore and dot are allowed; "
+			+ "underscore and dot can not be at the end or start of a username or next to each other, or used multiple times in a row";
+
+	Class<?>[] groups() default {};
+
+	Class<? extends Payload>[] payload() default {};
+
+}
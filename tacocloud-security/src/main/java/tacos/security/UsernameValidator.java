@@ -0,0 +1,44 @@
+package tacos.security;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+/**
+ * Checks a @Username in a single pass over its chars, without allocating anything. It accepts the very same usernames as the regular expression
+ * RegistrationFormat used before,
+ *
+ * ^(?=.{8,20}$)(?![_.])(?!.*[_.]{2})[a-zA-Z0-9._]+(?<![_.])$
+ *
+ * whose lookaheads scanned the username once for each rule.
+ */
+public class UsernameValidator implements ConstraintValidator<Username, CharSequence> {
+
+	private static final int MIN_LENGTH = 8;
+	private static final int MAX_LENGTH = 20;
+
+	@Override
+	public boolean isValid(CharSequence username, ConstraintValidatorContext context) {
+		if (username == null) {
+			return true;
+		}
+		int length = username.length();
+		if (length < MIN_LENGTH || length > MAX_LENGTH) {
+			return false;
+		}
+		boolean previousSeparator = true; // no _ or . at the beginning
+		for (int i = 0; i < length; i++) {
+			char c = username.charAt(i);
+			boolean separator = c == '_' || c == '.';
+			if (separator) {
+				if (previousSeparator) {
+					return false; // no __ or _. or ._ or .. inside
+				}
+			} else if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9')) {
+				return false;
+			}
+			previousSeparator = separator;
+		}
+		return !previousSeparator; // no _ or . at the end
+	}
+
+}
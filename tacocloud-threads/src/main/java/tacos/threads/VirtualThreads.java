@@ -0,0 +1,36 @@
+package tacos.threads;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual threads (JDK 21 and later) for an application that is still compiled for Java 8: Thread.ofVirtual() is looked up reflectively, so the
+ * same build runs on either JDK, and only the virtual thread mode (see VirtualThreadsConfig, in the tacos application and in the kitchen) requires
+ * a modern one.
+ */
+public final class VirtualThreads {
+
+	private VirtualThreads() {
+	}
+
+	/* a factory of virtual threads named prefix0, prefix1, ... */
+	public static ThreadFactory threadFactory(String prefix) {
+		try {
+			Method ofVirtual = Thread.class.getMethod("ofVirtual");
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Object builder = ofVirtual.invoke(null);
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+			return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Virtual threads require JDK 21 or later, this is Java " + System.getProperty("java.version"), e);
+		}
+	}
+
+	/* runs every task on a new virtual thread: virtual threads are cheap enough that they are never pooled */
+	public static Executor executor(String prefix) {
+		ThreadFactory threadFactory = threadFactory(prefix);
+		return task -> threadFactory.newThread(task).start();
+	}
+
+}
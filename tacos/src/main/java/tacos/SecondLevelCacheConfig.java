@@ -0,0 +1,54 @@
+package tacos;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+
+/**
+ * The optional second-level cache of Hibernate, only active with the 'cache' profile (see application.yml for the entities and collections that are
+ * cached, and with which strategy).
+ *
+ * The regions are Caffeine caches behind the JCache API. Their size and time-to-live bounds are set per region in application.conf, which Caffeine
+ * reads from the classpath. The CacheManager is created here and handed to Hibernate, rather than looked up by Hibernate itself, so that the same
+ * caches can be bound to the MeterRegistry: every region reports its hits, misses, puts and evictions as the cache.gets, cache.puts and
+ * cache.evictions metrics, tagged with the name of the region.
+ */
+@Configuration
+@Profile("cache")
+public class SecondLevelCacheConfig {
+
+	@Bean(destroyMethod = "close")
+	public CacheManager secondLevelCacheManager() {
+		CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+		return provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+		return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+	}
+
+	/* the regions are only created by Hibernate when the EntityManagerFactory is built, so they are bound once the application is ready */
+	@EventListener(ApplicationReadyEvent.class)
+	public void bindSecondLevelCacheMetrics(ApplicationReadyEvent event) {
+		CacheManager cacheManager = event.getApplicationContext().getBean("secondLevelCacheManager", CacheManager.class);
+		MeterRegistry registry = event.getApplicationContext().getBean(MeterRegistry.class);
+		for (String region : cacheManager.getCacheNames()) {
+			JCacheMetrics.monitor(registry, cacheManager.getCache(region));
+		}
+	}
+
+}
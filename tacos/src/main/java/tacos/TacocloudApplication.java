@@ -2,8 +2,11 @@ package tacos;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+/* @EnableScheduling runs the @Scheduled methods, such as OrderOutboxRelay.relay() */
 @SpringBootApplication
+@EnableScheduling
 public class TacocloudApplication {
 
 	public static void main(String[] args) {
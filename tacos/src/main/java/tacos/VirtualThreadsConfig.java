@@ -0,0 +1,37 @@
+package tacos;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import tacos.threads.VirtualThreads;
+
+/**
+ * The virtual thread mode, enabled with tacocloud.threads.virtual=true on JDK 21 or later (see application.yml).
+ *
+ * By default, Tomcat handles every request on one of its 200 platform threads, and since the JPA calls block, no more than 200 requests can be in
+ * flight at once, however many of them just wait on the database. In this mode, every request runs on a virtual thread of its own instead: a thread
+ * blocked on JDBC unmounts from its carrier, so the number of requests in flight is bounded by the connection pool rather than by a thread pool.
+ *
+ * The scheduled tasks run on virtual threads too, and with them the sends of the OrderOutboxRelay to the message broker, which all happen on the
+ * thread of the relay (the Kafka send blocks on its acknowledgment).
+ */
+@Configuration
+@ConditionalOnProperty(name = "tacocloud.threads.virtual", havingValue = "true")
+public class VirtualThreadsConfig {
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+		return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.executor("http-"));
+	}
+
+	@Bean
+	public ThreadPoolTaskScheduler taskScheduler() {
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.setThreadFactory(VirtualThreads.threadFactory("scheduling-"));
+		return scheduler;
+	}
+
+}
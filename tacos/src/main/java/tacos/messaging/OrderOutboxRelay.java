@@ -0,0 +1,101 @@
+package tacos.messaging;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import tacos.Order;
+import tacos.OrderOutboxEntry;
+import tacos.data.OrderOutboxRepository;
+import tacos.data.OrderRepository;
+
+/**
+ * Drains the order outbox (see OrderOutboxEntry) and sends the orders to the kitchen through the OrderMessagingService of the messaging module the
+ * application is built with (JMS, RabbitMQ or Kafka, see the messaging-* profiles in pom.xml). Placing an order only writes to the database; the
+ * relay runs on its own schedule, so a slow or unavailable broker never holds up an order POST.
+ *
+ * Delivery is at-least-once: an entry is only deleted in the transaction that follows a successful send, so if the application stops in between, the
+ * order is sent again on the next run. The kitchen must tolerate duplicates.
+ *
+ * Orders are sent in the order of their ids. When a send fails, the relay stops at that entry and retries it after a backoff that doubles with every
+ * failed attempt (up to max-backoff), rather than skipping ahead to the orders behind it. The outbox rows of a batch stay locked while its orders
+ * are sent, so a send that waits on the broker must give up after tacocloud.outbox.send-timeout (see KafkaOrderMessagingService), which fails it
+ * like any other error.
+ */
+@Slf4j
+@Component
+public class OrderOutboxRelay {
+
+	private OrderOutboxRepository outboxRepo;
+	private OrderRepository orderRepo;
+	private OrderMessagingService messagingService;
+	private TransactionTemplate transactionTemplate;
+
+	@Value("${tacocloud.outbox.batch-size:100}")
+	private int batchSize;
+
+	@Value("${tacocloud.outbox.initial-backoff:1000}")
+	private long initialBackoff;
+
+	@Value("${tacocloud.outbox.max-backoff:300000}")
+	private long maxBackoff;
+
+	@Autowired
+	public OrderOutboxRelay(OrderOutboxRepository outboxRepo, OrderRepository orderRepo, OrderMessagingService messagingService,
+			TransactionTemplate transactionTemplate) {
+		this.outboxRepo = outboxRepo;
+		this.orderRepo = orderRepo;
+		this.messagingService = messagingService;
+		this.transactionTemplate = transactionTemplate;
+	}
+
+	/* keeps relaying batches as long as they come back full, then waits for the next poll */
+	@Scheduled(fixedDelayString = "${tacocloud.outbox.poll-interval:1000}")
+	public void relay() {
+		Integer relayed;
+		do {
+			relayed = transactionTemplate.execute(status -> relayBatch());
+		} while (relayed != null && relayed == batchSize);
+	}
+
+	/* returns the number of orders sent, which is less than a full batch when the outbox is drained or a send failed */
+	private int relayBatch() {
+		List<OrderOutboxEntry> entries = outboxRepo.findAllByOrderByOrderIdAsc(PageRequest.of(0, batchSize));
+		Date now = new Date();
+		int sent = 0;
+		for (OrderOutboxEntry entry : entries) {
+			if (entry.getNextAttemptAt().after(now)) {
+				break;
+			}
+			Optional<Order> order = orderRepo.findById(entry.getOrderId());
+			try {
+				/* an order deleted before it could be sent has nothing left to send */
+				order.ifPresent(messagingService::sendOrder);
+			} catch (RuntimeException e) {
+				backOff(entry, now, e);
+				break;
+			}
+			outboxRepo.delete(entry);
+			sent++;
+		}
+		return sent;
+	}
+
+	private void backOff(OrderOutboxEntry entry, Date now, RuntimeException e) {
+		int attempts = entry.getAttempts() + 1;
+		long backoff = Math.min(maxBackoff, initialBackoff << Math.min(attempts - 1, 30));
+		entry.setAttempts(attempts);
+		entry.setNextAttemptAt(new Date(now.getTime() + backoff));
+		outboxRepo.save(entry);
+		log.warn("Sending order {} failed (attempt {}), retrying in {} ms", entry.getOrderId(), attempts, backoff, e);
+	}
+
+}
@@ -0,0 +1,23 @@
+-- Moves an existing PostgreSQL database from the single hibernate_sequence (GenerationType.AUTO) to one sequence per entity, with the pooled-lo
+-- allocation used by PooledSequenceGenerator. Run it once, while the application is stopped, before deploying the version that uses these sequences:
+--
+--   psql -d tacocloud -f pooled-sequences-postgresql.sql
+--
+-- The increment of each sequence is the allocation size, and must match tacocloud.id.allocation_size (50 unless it is overridden in application.yml).
+-- Each sequence is restarted right after the highest id already in its table, so the ids handed out from now on never collide with existing rows.
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS taco_seq INCREMENT BY 50;
+SELECT setval('taco_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM taco), false);
+
+CREATE SEQUENCE IF NOT EXISTS taco_order_seq INCREMENT BY 50;
+SELECT setval('taco_order_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM taco_order), false);
+
+CREATE SEQUENCE IF NOT EXISTS user_seq INCREMENT BY 50;
+SELECT setval('user_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM "user"), false);
+
+COMMIT;
+
+-- hibernate_sequence isn't used anymore, it can be dropped once every node runs the new version:
+-- DROP SEQUENCE hibernate_sequence;
@@ -0,0 +1,59 @@
+package tacos;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import tacos.Ingredient.Type;
+import tacos.data.IngredientRepository;
+
+/*
+ * The application with the 'cache' profile, against the embedded database: the ingredients stay editable while they are in the second-level cache.
+ * The security filters are left out.
+ */
+@SpringBootTest
+@ActiveProfiles("cache")
+@AutoConfigureMockMvc(addFilters = false)
+class SecondLevelCacheTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private IngredientRepository ingredientRepo;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	/* the ingredient is cached by the first read, replaced by the PUT, and read again as replaced, from the database then from the cache */
+	@Test
+	void putIngredientUpdatesTheCachedIngredient() throws Exception {
+		ingredientRepo.save(new Ingredient("SRCR", "Sour Cream", Type.SAUCE));
+		ingredientRepo.findById("SRCR");
+		assertTrue(entityManagerFactory.getCache().contains(Ingredient.class, "SRCR"));
+
+		mvc.perform(put("/ingredients/{id}", "SRCR").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"id\":\"SRCR\",\"name\":\"Crema\",\"type\":\"SAUCE\"}"))
+				.andExpect(status().isOk());
+
+		for (int i = 0; i < 2; i++) {
+			mvc.perform(get("/ingredients/{id}", "SRCR").accept(MediaType.APPLICATION_JSON))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.name").value("Crema"));
+		}
+		assertTrue(ingredientRepo.findById("SRCR").map(ingredient -> ingredient.getName().equals("Crema")).orElse(false));
+	}
+
+}